@@ -20,17 +20,22 @@
 package org.wildfly.camel.utils;
 
 
+import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
 import org.apache.camel.spring.SpringCamelContext;
 import org.apache.camel.spring.handler.CamelNamespaceHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.MutablePropertyValues;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.config.TypedStringValue;
 import org.springframework.beans.factory.xml.NamespaceHandler;
 import org.springframework.beans.factory.xml.NamespaceHandlerResolver;
@@ -40,6 +45,11 @@ import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.jndi.JndiObjectFactoryBean;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
 import org.wildfly.camel.proxy.ProxiedAction;
 import org.wildfly.camel.proxy.ProxyUtils;
 
@@ -49,6 +59,7 @@ import org.wildfly.camel.proxy.ProxyUtils;
 public class SpringCamelContextBootstrap {
 
     private static Logger LOGGER = LoggerFactory.getLogger(SpringCamelContextBootstrap.class);
+    private static final String BEANS_NAMESPACE = "http://www.springframework.org/schema/beans";
 
     private GenericApplicationContext applicationContext;
 
@@ -57,7 +68,17 @@ public class SpringCamelContextBootstrap {
      * @param classLoader The ClassLoader that the Spring {@link GenericApplicationContext} should use
      */
     public SpringCamelContextBootstrap(final URL contextUrl, final ClassLoader classLoader) {
-        this(new UrlResource(contextUrl), classLoader);
+        this(new UrlResource(contextUrl), classLoader, null);
+    }
+
+    /**
+     * @param contextUrl The URL path to the Spring context descriptor
+     * @param classLoader The ClassLoader that the Spring {@link GenericApplicationContext} should use
+     * @param validatedDescriptors The cache used to skip the XML schema validation of unchanged descriptors
+     * @throws IOException if the descriptor cannot be read
+     */
+    public SpringCamelContextBootstrap(final URL contextUrl, final ClassLoader classLoader, final ValidatedDescriptorCache validatedDescriptors) throws IOException {
+        this(new UrlResource(contextUrl), classLoader, validatedDescriptors, ValidatedDescriptorCache.hash(contextUrl));
     }
 
     /**
@@ -65,11 +86,11 @@ public class SpringCamelContextBootstrap {
      * @param classLoader The ClassLoader that the Spring {@link GenericApplicationContext} should use
      */
     public SpringCamelContextBootstrap(final byte[] bytes, final ClassLoader classLoader) {
-        this(new ByteArrayResource(bytes), classLoader);
+        this(new ByteArrayResource(bytes), classLoader, null, null);
     }
 
-    private SpringCamelContextBootstrap(final Resource resource, final ClassLoader classLoader) {
-        loadBeanDefinitions(resource, classLoader);
+    private SpringCamelContextBootstrap(final Resource resource, final ClassLoader classLoader, final ValidatedDescriptorCache validatedDescriptors, final String hash) {
+        loadBeanDefinitions(resource, classLoader, validatedDescriptors, hash);
     }
 
     /**
@@ -159,17 +180,64 @@ public class SpringCamelContextBootstrap {
         return applicationContext.getClassLoader();
     }
 
-    private void loadBeanDefinitions(Resource resource, ClassLoader classLoader) {
+    private void loadBeanDefinitions(Resource resource, ClassLoader classLoader, ValidatedDescriptorCache validatedDescriptors, String hash) {
         applicationContext = new GenericApplicationContext();
         applicationContext.setClassLoader(classLoader);
+        final boolean validated = validatedDescriptors != null && validatedDescriptors.isValidated(hash);
+        /* The reader also registers every imported document, which the hash of the descriptor does not cover */
+        final int[] documents = new int[1];
+        final boolean[] schemaDefaults = new boolean[1];
         XmlBeanDefinitionReader xmlReader = new XmlBeanDefinitionReader(applicationContext) {
             @Override
             protected NamespaceHandlerResolver createDefaultNamespaceHandlerResolver() {
                 NamespaceHandlerResolver defaultResolver = super.createDefaultNamespaceHandlerResolver();
                 return new SpringCamelContextBootstrap.CamelNamespaceHandlerResolver(defaultResolver);
             }
+
+            @Override
+            public int registerBeanDefinitions(Document doc, Resource resource) throws BeanDefinitionStoreException {
+                documents[0]++;
+                if (validatedDescriptors != null && !validated) {
+                    schemaDefaults[0] |= hasSchemaDefaults(doc.getDocumentElement());
+                }
+                return super.registerBeanDefinitions(doc, resource);
+            }
         };
+        if (validated) {
+            LOGGER.debug("Skipping the schema validation of unchanged descriptor {}", resource);
+            xmlReader.setValidationMode(XmlBeanDefinitionReader.VALIDATION_NONE);
+            xmlReader.setNamespaceAware(true);
+        }
         xmlReader.loadBeanDefinitions(resource);
+        if (validatedDescriptors != null && !validated && documents[0] == 1 && !schemaDefaults[0]) {
+            validatedDescriptors.markValidated(hash);
+        } else if (documents[0] > 1) {
+            LOGGER.debug("Not caching the validation of descriptor {} with imports", resource);
+        }
+    }
+
+    /**
+     * A descriptor parsed without validation lacks the attribute values defaulted by the schemas, so it can only skip
+     * the validation if it does not rely on them. The defaults of the beans namespace are exempt because Spring treats
+     * absent attributes of that namespace like their default value.
+     *
+     * @return {@code true} if the schema validation added default attributes to an element outside the beans namespace
+     */
+    static boolean hasSchemaDefaults(Element element) {
+        if (!BEANS_NAMESPACE.equals(element.getNamespaceURI())) {
+            NamedNodeMap attributes = element.getAttributes();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                if (!((Attr) attributes.item(i)).getSpecified()) {
+                    return true;
+                }
+            }
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element && hasSchemaDefaults((Element) child)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private static class CamelNamespaceHandlerResolver implements NamespaceHandlerResolver {
@@ -179,7 +247,7 @@ public class SpringCamelContextBootstrap {
 
         CamelNamespaceHandlerResolver(NamespaceHandlerResolver delegate) {
             this.delegate = delegate;
-            this.camelHandler = new CamelNamespaceHandler();
+            this.camelHandler = new SharedJaxbContextNamespaceHandler();
             this.camelHandler.init();
         }
 
@@ -192,4 +260,30 @@ public class SpringCamelContextBootstrap {
             }
         }
     }
+
+    /**
+     * A {@link CamelNamespaceHandler} sharing a single {@link JAXBContext} with all other instances. The handler
+     * itself keeps per parse state and is therefore created for each descriptor, but creating the thread-safe
+     * {@link JAXBContext} for the Camel model is expensive and its result does not depend on the deployment.
+     */
+    private static class SharedJaxbContextNamespaceHandler extends CamelNamespaceHandler {
+
+        private static volatile JAXBContext sharedJaxbContext;
+
+        @Override
+        public JAXBContext getJaxbContext() throws JAXBException {
+            JAXBContext result = sharedJaxbContext;
+            if (result == null) {
+                synchronized (SharedJaxbContextNamespaceHandler.class) {
+                    result = sharedJaxbContext;
+                    if (result == null) {
+                        /* Let a plain handler create it so that the Camel Spring class loader is used */
+                        result = new CamelNamespaceHandler().getJaxbContext();
+                        sharedJaxbContext = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
 }
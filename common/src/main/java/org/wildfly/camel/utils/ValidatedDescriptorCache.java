@@ -0,0 +1,93 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wildfly.camel.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the SHA-256 hashes of the Spring context descriptors that passed the XML schema validation so that
+ * unchanged descriptors can be parsed without validating them again, e.g. on redeploy.
+ *
+ * The hashes are kept in memory only, so that a descriptor is validated again after a server restart, which may come
+ * with updated Camel or Spring schemas. Note that only the content of the descriptor itself is hashed, not the content
+ * of the resources it imports.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public final class ValidatedDescriptorCache {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Set<String> hashes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param url the descriptor to hash
+     * @return the hex encoded SHA-256 hash of the content of the given descriptor
+     * @throws IOException if the descriptor cannot be read
+     */
+    public static String hash(URL url) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = url.openStream()) {
+            IOUtils.copyStream(in, out);
+        }
+        return hash(out.toByteArray());
+    }
+
+    /**
+     * @param bytes the descriptor content to hash
+     * @return the hex encoded SHA-256 hash of the given bytes
+     */
+    public static String hash(byte[] bytes) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        final char[] result = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            result[2 * i] = HEX[(digest[i] >> 4) & 0xf];
+            result[2 * i + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(result);
+    }
+
+    /**
+     * @param hash a hash returned by {@link #hash(byte[])}
+     * @return {@code true} if a descriptor with the given hash passed the validation before
+     */
+    public boolean isValidated(String hash) {
+        return hashes.contains(hash);
+    }
+
+    /**
+     * @param hash a hash returned by {@link #hash(byte[])} of a descriptor that passed the validation
+     */
+    public void markValidated(String hash) {
+        hashes.add(hash);
+    }
+}
@@ -0,0 +1,76 @@
+package org.wildfly.camel.utils;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+
+public class SpringCamelContextBootstrapTest {
+
+    private static final String BEANS_HEADER = "<beans xmlns='http://www.springframework.org/schema/beans' "
+            + "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' "
+            + "xmlns:util='http://www.springframework.org/schema/util' "
+            + "xsi:schemaLocation='http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans.xsd "
+            + "http://www.springframework.org/schema/util http://www.springframework.org/schema/util/spring-util.xsd'>";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testValidDescriptorIsCached() throws Exception {
+        final URL url = descriptor("<bean id='jndi' class='org.springframework.jndi.JndiObjectFactoryBean'>"
+                + "<property name='jndiName' value='java:jboss/datasources/ExampleDS'/></bean>");
+        final ValidatedDescriptorCache cache = new ValidatedDescriptorCache();
+        final SpringCamelContextBootstrap validated = new SpringCamelContextBootstrap(url, getClass().getClassLoader(), cache);
+        Assert.assertTrue(cache.isValidated(ValidatedDescriptorCache.hash(url)));
+
+        final SpringCamelContextBootstrap skipped = new SpringCamelContextBootstrap(url, getClass().getClassLoader(), cache);
+        Assert.assertEquals(validated.getJndiNames(), skipped.getJndiNames());
+    }
+
+    @Test
+    public void testSkipValidation() throws Exception {
+        final URL url = descriptor("<bean id='invalid' class='java.lang.Object' lazy-init='maybe'/>");
+        final ValidatedDescriptorCache cache = new ValidatedDescriptorCache();
+        try {
+            new SpringCamelContextBootstrap(url, getClass().getClassLoader(), cache);
+            Assert.fail("BeanDefinitionStoreException expected");
+        } catch (BeanDefinitionStoreException ex) {
+            // expected
+        }
+        Assert.assertFalse(cache.isValidated(ValidatedDescriptorCache.hash(url)));
+
+        // A descriptor known to be valid is not validated again
+        cache.markValidated(ValidatedDescriptorCache.hash(url));
+        new SpringCamelContextBootstrap(url, getClass().getClassLoader(), cache);
+    }
+
+    @Test
+    public void testSchemaDefaultsAreNotCached() throws Exception {
+        final URL url = descriptor("<util:properties id='props'/>");
+        final ValidatedDescriptorCache cache = new ValidatedDescriptorCache();
+        new SpringCamelContextBootstrap(url, getClass().getClassLoader(), cache);
+        Assert.assertFalse(cache.isValidated(ValidatedDescriptorCache.hash(url)));
+    }
+
+    @Test
+    public void testDescriptorWithImportIsNotCached() throws Exception {
+        final URL imported = descriptor("<bean id='imported' class='java.lang.Object'/>");
+        final URL url = descriptor("<import resource='" + new File(imported.toURI()).getName() + "'/>");
+        final ValidatedDescriptorCache cache = new ValidatedDescriptorCache();
+        new SpringCamelContextBootstrap(url, getClass().getClassLoader(), cache);
+        Assert.assertFalse(cache.isValidated(ValidatedDescriptorCache.hash(url)));
+    }
+
+    private URL descriptor(String beans) throws Exception {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), (BEANS_HEADER + beans + "</beans>").getBytes(StandardCharsets.UTF_8));
+        return file.toURI().toURL();
+    }
+}
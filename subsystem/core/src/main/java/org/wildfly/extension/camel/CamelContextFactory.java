@@ -20,7 +20,12 @@
 
 package org.wildfly.extension.camel;
 
+import java.util.concurrent.Callable;
+
 import org.apache.camel.CamelContext;
+import org.jboss.modules.ModuleClassLoader;
+import org.wildfly.camel.utils.IllegalArgumentAssertion;
+import org.wildfly.extension.camel.handler.ModuleClassLoaderAssociationHandler;
 
 /**
  * The WildFly {@link CamelContext} factory.
@@ -33,4 +38,25 @@ public interface CamelContextFactory {
     WildFlyCamelContext createCamelContext() throws Exception;
 
     WildFlyCamelContext createCamelContext(ClassLoader classsLoader) throws Exception;
+
+    /**
+     * Calls the given factory with the {@link CamelContext}s it creates associated with the module of the given class
+     * loader. This allows to create any kind of {@link CamelContext} without the subsystem having to find the calling
+     * module on the call stack.
+     *
+     * @param classLoader the {@code ModuleClassLoader} of the module to associate the contexts with
+     * @param factory creates the context
+     * @return the result of the given factory
+     * @throws Exception if the factory fails
+     */
+    default <T extends CamelContext> T createCamelContext(ClassLoader classLoader, Callable<T> factory) throws Exception {
+        IllegalArgumentAssertion.assertTrue(classLoader instanceof ModuleClassLoader, "ModuleClassLoader required: " + classLoader);
+        IllegalArgumentAssertion.assertNotNull(factory, "factory");
+        ModuleClassLoaderAssociationHandler.associate((ModuleClassLoader) classLoader);
+        try {
+            return factory.call();
+        } finally {
+            ModuleClassLoaderAssociationHandler.disassociate();
+        }
+    }
 }
@@ -20,6 +20,8 @@
 
 package org.wildfly.extension.camel;
 
+import java.util.Set;
+
 import org.apache.camel.CamelContext;
 import org.apache.camel.Component;
 import org.jboss.as.server.DeploymentProcessorTarget;
@@ -54,4 +56,12 @@ public interface CamelSubsytemExtension {
     public default Component resolveComponent(String name, SubsystemState subsystemState) {
         return null;
     }
+
+    /**
+     * @return the names of the components this extension resolves in {@link #resolveComponent(String, SubsystemState)}
+     *         or {@code null} if the extension needs to be asked for every component name
+     */
+    public default Set<String> getComponentNames() {
+        return null;
+    }
 }
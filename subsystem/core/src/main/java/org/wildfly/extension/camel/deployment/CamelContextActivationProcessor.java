@@ -26,6 +26,7 @@ import static org.wildfly.extension.camel.CamelLogger.LOGGER;
 import java.util.List;
 
 import org.jboss.as.naming.deployment.ContextNames;
+import org.jboss.as.server.Services;
 import org.jboss.as.server.deployment.Attachments;
 import org.jboss.as.server.deployment.DeploymentPhaseContext;
 import org.jboss.as.server.deployment.DeploymentUnit;
@@ -36,6 +37,7 @@ import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.wildfly.camel.utils.SpringCamelContextBootstrap;
 import org.wildfly.extension.camel.CamelConstants;
+import org.wildfly.extension.camel.parser.SubsystemState;
 import org.wildfly.extension.camel.service.CamelContextActivationService;
 
 /**
@@ -46,6 +48,12 @@ public class CamelContextActivationProcessor implements DeploymentUnitProcessor
 
     private static final ServiceName CAMEL_CONTEXT_ACTIVATION_SERVICE_NAME = ServiceName.of("CamelContextActivationService");
 
+    private final SubsystemState subsystemState;
+
+    public CamelContextActivationProcessor(SubsystemState subsystemState) {
+        this.subsystemState = subsystemState;
+    }
+
     @Override
     public void deploy(final DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
 
@@ -62,8 +70,15 @@ public class CamelContextActivationProcessor implements DeploymentUnitProcessor
         ServiceName camelActivationServiceName = depUnit.getServiceName().append(CAMEL_CONTEXT_ACTIVATION_SERVICE_NAME.append(runtimeName));
 
         List<SpringCamelContextBootstrap> camelctxBootstrapList = depUnit.getAttachmentList(CamelConstants.CAMEL_CONTEXT_BOOTSTRAP_KEY);
-        CamelContextActivationService activationService = new CamelContextActivationService(camelctxBootstrapList, runtimeName);
+        Boolean parallel = depSettings.getParallelContextActivation();
+        if (parallel == null) {
+            parallel = subsystemState.isParallelContextActivation();
+        }
+        CamelContextActivationService activationService = new CamelContextActivationService(camelctxBootstrapList, runtimeName, parallel);
         ServiceBuilder builder = serviceTarget.addService(camelActivationServiceName, activationService);
+        if (parallel) {
+            Services.addServerExecutorDependency(builder, activationService.getExecutorInjector());
+        }
 
         // Ensure all camel contexts in the deployment are started before constructing servlets etc
         depUnit.addToAttachmentList(Attachments.WEB_DEPENDENCIES, camelActivationServiceName);
@@ -30,6 +30,7 @@ import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.as.server.deployment.DeploymentUnitProcessor;
 import org.jboss.modules.Module;
 import org.wildfly.camel.utils.SpringCamelContextBootstrap;
+import org.wildfly.camel.utils.ValidatedDescriptorCache;
 import org.wildfly.extension.camel.CamelConstants;
 
 /**
@@ -37,6 +38,8 @@ import org.wildfly.extension.camel.CamelConstants;
  */
 public class CamelContextBootstrapProcessor implements DeploymentUnitProcessor {
 
+    private final ValidatedDescriptorCache validatedDescriptors = new ValidatedDescriptorCache();
+
     @Override
     public void deploy(final DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
 
@@ -51,7 +54,7 @@ public class CamelContextBootstrapProcessor implements DeploymentUnitProcessor {
             ClassLoader tccl = SecurityActions.getContextClassLoader();
             try {
                 SecurityActions.setContextClassLoader(module.getClassLoader());
-                SpringCamelContextBootstrap bootstrap = new SpringCamelContextBootstrap(contextURL, module.getClassLoader());
+                SpringCamelContextBootstrap bootstrap = new SpringCamelContextBootstrap(contextURL, module.getClassLoader(), validatedDescriptors);
                 depUnit.addToAttachmentList(CamelConstants.CAMEL_CONTEXT_BOOTSTRAP_KEY, bootstrap);
             } catch (Exception ex) {
                 throw new IllegalStateException("Cannot create camel context: " + runtimeName, ex);
@@ -58,13 +58,15 @@ public final class CamelDeploymentSettings {
     private final List<String> dependencies;
     private final List<URL> camelContextUrls;
     private final boolean enabled;
+    private final Boolean parallelContextActivation;
 
     private CamelDeploymentSettings(List<String> dependencies,
-            List<URL> camelContextUrls, boolean enabled) {
+            List<URL> camelContextUrls, boolean enabled, Boolean parallelContextActivation) {
         super();
         this.dependencies = dependencies;
         this.camelContextUrls = camelContextUrls;
         this.enabled = enabled;
+        this.parallelContextActivation = parallelContextActivation;
     }
 
     public boolean isEnabled() {
@@ -79,6 +81,14 @@ public final class CamelDeploymentSettings {
         return camelContextUrls;
     }
 
+    /**
+     * @return the {@code parallel-context-activation} set in {@code jboss-all.xml} or {@code null} if the subsystem
+     *         default applies
+     */
+    public Boolean getParallelContextActivation() {
+        return parallelContextActivation;
+    }
+
     public static class Builder {
         private boolean camelAnnotationPresent;
         private List<URL> camelContextUrls = new ArrayList<>();
@@ -87,6 +97,7 @@ public final class CamelDeploymentSettings {
         private String deploymentName;
         private boolean deploymentValid;
         private boolean disabledByJbossAll;
+        private Boolean parallelContextActivation;
         private final Object lock = new Object();
 
         /**
@@ -101,6 +112,7 @@ public final class CamelDeploymentSettings {
             final boolean enabled;
             final List<String> deps;
             final List<URL> urls;
+            final Boolean parallel;
             synchronized (lock) {
                 enabled = isEnabled();
                 for (Map.Entry<CamelDeploymentSettings.Builder, Consumer<CamelDeploymentSettings>> e : children) {
@@ -112,8 +124,9 @@ public final class CamelDeploymentSettings {
                 this.dependencies = null;
                 urls = Collections.unmodifiableList(this.camelContextUrls);
                 this.camelContextUrls = null;
+                parallel = this.parallelContextActivation;
             }
-            final CamelDeploymentSettings result = new CamelDeploymentSettings(deps, urls, enabled);
+            final CamelDeploymentSettings result = new CamelDeploymentSettings(deps, urls, enabled, parallel);
             synchronized (deploymentSettingsMap) {
                 deploymentSettingsMap.put(deploymentName, result);
             }
@@ -170,6 +183,13 @@ public final class CamelDeploymentSettings {
             return this;
         }
 
+        public Builder parallelContextActivation(Boolean parallelContextActivation) {
+            synchronized (lock) {
+                this.parallelContextActivation = parallelContextActivation;
+            }
+            return this;
+        }
+
         public boolean isDeploymentValid() {
             synchronized (lock) {
                 return deploymentValid;
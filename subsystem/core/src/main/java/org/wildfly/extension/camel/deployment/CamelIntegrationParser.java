@@ -113,6 +113,7 @@ public class CamelIntegrationParser implements JBossAllXMLParser<CamelDeployment
     enum Attribute {
         NAME(new QName("name")),
         ENABLED(new QName("enabled")),
+        PARALLEL_CONTEXT_ACTIVATION(new QName("parallel-context-activation")),
         // default unknown attribute
         UNKNOWN(null);
 
@@ -151,6 +152,10 @@ public class CamelIntegrationParser implements JBossAllXMLParser<CamelDeployment
             case CAMEL_INTEGRATION:
                 final String value = getAttributeValue(reader, Attribute.ENABLED, propertyReplacer);
                 result.disabledByJbossAll(Boolean.valueOf(value) == Boolean.FALSE);
+                final String parallel = getAttributeValue(reader, Attribute.PARALLEL_CONTEXT_ACTIVATION, propertyReplacer);
+                if (parallel != null) {
+                    result.parallelContextActivation(Boolean.valueOf(parallel));
+                }
                 break;
             default:
                 throw unexpectedContent(reader);
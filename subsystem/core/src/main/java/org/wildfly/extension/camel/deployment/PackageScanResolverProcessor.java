@@ -54,7 +54,7 @@ public class PackageScanResolverProcessor implements DeploymentUnitProcessor {
 
         ContextCreateHandlerRegistry createHandlerRegistry = depUnit.getAttachment(CamelConstants.CONTEXT_CREATE_HANDLER_REGISTRY_KEY);
         ModuleClassLoader moduleClassLoader = depUnit.getAttachment(Attachments.MODULE).getClassLoader();
-        PackageScanClassResolverAssociationHandler contextCreateHandler = new PackageScanClassResolverAssociationHandler(moduleClassLoader);
+        PackageScanClassResolverAssociationHandler contextCreateHandler = new PackageScanClassResolverAssociationHandler(moduleClassLoader, depUnit.getAttachment(Attachments.COMPOSITE_ANNOTATION_INDEX));
         depUnit.putAttachment(PACKAGE_SCAN_ASSOCIATION_HANDLER_ATTACHMENT_KEY, contextCreateHandler);
         createHandlerRegistry.addContextCreateHandler(moduleClassLoader, contextCreateHandler);
     }
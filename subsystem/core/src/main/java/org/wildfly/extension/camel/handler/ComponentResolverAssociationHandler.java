@@ -20,12 +20,19 @@
 
 package org.wildfly.extension.camel.handler;
 
-import java.util.Iterator;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.Component;
 import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultComponentResolver;
 import org.apache.camel.spi.ComponentResolver;
+import org.apache.camel.util.ResolverHelper;
 import org.wildfly.extension.camel.CamelSubsytemExtension;
 import org.wildfly.extension.camel.ContextCreateHandler;
 import org.wildfly.extension.camel.parser.SubsystemState;
@@ -33,12 +40,16 @@ import org.wildfly.extension.camel.parser.SubsystemState;
 /**
  * A {@link ContextCreateHandler} that sets the {@link ComponentResolver}
  *
+ * The component classes found by the default resolver through {@code META-INF/services} are cached per application
+ * context class loader, so that contexts created later by the same module need not look them up again.
+ *
  * @author Thomas.Diesler@jboss.com
  * @since 30-Jul-2015
  */
 public final class ComponentResolverAssociationHandler implements ContextCreateHandler {
 
     private final SubsystemState subsystemState;
+    private final Map<ClassLoader, Map<String, Reference<Class<?>>>> componentTypes = Collections.synchronizedMap(new WeakHashMap<>());
 
     public ComponentResolverAssociationHandler(SubsystemState subsystemState) {
         this.subsystemState = subsystemState;
@@ -49,27 +60,59 @@ public final class ComponentResolverAssociationHandler implements ContextCreateH
         if (camelctx instanceof DefaultCamelContext) {
             DefaultCamelContext defaultctx = (DefaultCamelContext) camelctx;
             ComponentResolver delegate = defaultctx.getComponentResolver();
-            defaultctx.setComponentResolver(new WildFlyComponentResolver(delegate));
+            Map<String, Reference<Class<?>>> moduleTypes = null;
+            ClassLoader classLoader = camelctx.getApplicationContextClassLoader();
+            if (classLoader != null && delegate instanceof DefaultComponentResolver) {
+                moduleTypes = componentTypes.computeIfAbsent(classLoader, cl -> new ConcurrentHashMap<>());
+            }
+            defaultctx.setComponentResolver(new WildFlyComponentResolver(delegate, moduleTypes));
         }
     }
 
     class WildFlyComponentResolver implements ComponentResolver {
 
         final ComponentResolver delegate;
+        /* The component types found through META-INF/services or null if they must not be cached */
+        final Map<String, Reference<Class<?>>> moduleTypes;
 
-        WildFlyComponentResolver(ComponentResolver delegate) {
+        WildFlyComponentResolver(ComponentResolver delegate, Map<String, Reference<Class<?>>> moduleTypes) {
             this.delegate = delegate;
+            this.moduleTypes = moduleTypes;
         }
 
         @Override
         public Component resolveComponent(String name, CamelContext context) throws Exception {
-            Component component = null;
-            Iterator<CamelSubsytemExtension> iterator = subsystemState.getCamelSubsytemExtensions().iterator();
-            for (; iterator.hasNext() && component == null;) {
-                CamelSubsytemExtension plugin = iterator.next();
-                component = plugin.resolveComponent(name, subsystemState);
+            for (CamelSubsytemExtension plugin : subsystemState.getComponentExtensions(name)) {
+                Component component = plugin.resolveComponent(name, subsystemState);
+                if (component != null) {
+                    return component;
+                }
+            }
+            if (moduleTypes == null) {
+                return delegate.resolveComponent(name, context);
+            }
+
+            // Components bound in the registry take precedence like in the default resolver
+            Component bound = ResolverHelper.lookupComponentInRegistryWithFallback(context, name);
+            if (bound != null) {
+                return bound;
+            }
+
+            Reference<Class<?>> cached = moduleTypes.get(name);
+            Class<?> type = cached != null ? cached.get() : null;
+            if (type != null) {
+                return (Component) context.getInjector().newInstance(type);
+            }
+
+            Component component = delegate.resolveComponent(name, context);
+            if (component != null) {
+                // The default resolver has just loaded the type through the context's factory finder which caches it
+                Class<?> found = context.getFactoryFinder(DefaultComponentResolver.RESOURCE_PATH).findClass(name);
+                if (found != null && Component.class.isAssignableFrom(found)) {
+                    moduleTypes.put(name, new WeakReference<>(found));
+                }
             }
-            return component != null ? component : delegate.resolveComponent(name, context);
+            return component;
         }
     }
 }
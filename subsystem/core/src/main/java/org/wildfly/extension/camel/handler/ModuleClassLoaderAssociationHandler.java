@@ -90,9 +90,13 @@ public final class ModuleClassLoaderAssociationHandler implements ContextCreateH
         }
 
         // Case #5: The context is created through user API
+        // Use CamelContextFactory.createCamelContext(ClassLoader, Callable) to avoid inspecting the call stack
         if (contextModule == null) {
             Class<?> callingClass = CallerContext.getCallingClass();
-            contextModule = ((ModuleClassLoader) callingClass.getClassLoader()).getModule();
+            ClassLoader callingClassLoader = callingClass != null ? callingClass.getClassLoader() : null;
+            if (callingClassLoader instanceof ModuleClassLoader) {
+                contextModule = ((ModuleClassLoader) callingClassLoader).getModule();
+            }
         }
 
         IllegalStateAssertion.assertNotNull(contextModule, "Cannot obtain module for: " + camelctx);
@@ -111,25 +115,30 @@ public final class ModuleClassLoaderAssociationHandler implements ContextCreateH
             }
         });
 
+        private static final String[] IGNORED_PREFIXES = { "org.wildfly.extension.camel", "org.springframework", "org.apache.camel" };
+
+        /**
+         * @return the first class on the call stack that is neither part of this subsystem nor of Camel or Spring or
+         *         {@code null} if there is none
+         */
         static Class<?> getCallingClass() {
             Class<?> stack[] = hack.getClassContext();
-            int i = 3;
-            while (stack[i] == stack[2]) {
-                if (++i >= stack.length)
-                    return null;
-            }
-            Class<?> result = stack[i];
-            while (ignoreCaller(result.getName())) {
-                result = stack[++i];
+            // stack[0] is the Hack, stack[1] this class, stack[2] the class asking for its caller
+            for (int i = 3; i < stack.length; i++) {
+                if (stack[i] != stack[2] && !ignoreCaller(stack[i].getName())) {
+                    return stack[i];
+                }
             }
-            return result;
+            return null;
         }
 
         private static boolean ignoreCaller(String caller) {
-            boolean result = caller.startsWith("org.wildfly.extension.camel");
-            result |= caller.startsWith("org.springframework");
-            result |= caller.startsWith("org.apache.camel");
-            return result;
+            for (String prefix : IGNORED_PREFIXES) {
+                if (caller.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
         }
 
         private static final class Hack extends SecurityManager {
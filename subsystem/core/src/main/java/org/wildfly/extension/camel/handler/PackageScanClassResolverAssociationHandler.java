@@ -21,13 +21,28 @@ package org.wildfly.extension.camel.handler;
 
 import static org.wildfly.extension.camel.CamelLogger.LOGGER;
 
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.impl.DefaultPackageScanClassResolver;
+import org.apache.camel.impl.scan.AnnotatedWithAnyPackageScanFilter;
+import org.apache.camel.impl.scan.AnnotatedWithPackageScanFilter;
+import org.apache.camel.impl.scan.AssignableToPackageScanFilter;
 import org.apache.camel.spi.PackageScanClassResolver;
 import org.apache.camel.spi.PackageScanFilter;
+import org.jboss.as.server.deployment.annotation.CompositeIndex;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
 import org.jboss.modules.ModuleClassLoader;
 import org.jboss.modules.Resource;
 import org.wildfly.extension.camel.ContextCreateHandler;
@@ -41,23 +56,238 @@ import org.wildfly.extension.camel.ContextCreateHandler;
 public final class PackageScanClassResolverAssociationHandler implements ContextCreateHandler {
 
     private final ModuleClassLoader moduleClassLoader;
+    private final CompositeIndex index;
+    private final Map<String, Set<Class<?>>> scanResults = new ConcurrentHashMap<>();
 
     public PackageScanClassResolverAssociationHandler(ModuleClassLoader moduleClassLoader) {
+        this(moduleClassLoader, null);
+    }
+
+    /**
+     * @param moduleClassLoader the class loader of the deployment
+     * @param index the annotation index of the deployment used to avoid loading the classes which cannot match a scan
+     *        or {@code null} to test every class
+     */
+    public PackageScanClassResolverAssociationHandler(ModuleClassLoader moduleClassLoader, CompositeIndex index) {
         this.moduleClassLoader = moduleClassLoader;
+        this.index = index;
     }
 
     @Override
     public void setup(CamelContext camelctx) {
-        PackageScanClassResolver resolver = new PackageScanClassResolverImpl(moduleClassLoader);
+        PackageScanClassResolver resolver = new PackageScanClassResolverImpl(moduleClassLoader, index, scanResults);
         camelctx.setPackageScanClassResolver(resolver);
     }
 
     static final class PackageScanClassResolverImpl extends DefaultPackageScanClassResolver {
 
+        private static final DotName OBJECT = DotName.createSimple(Object.class.getName());
+
+        private final ModuleClassLoader moduleClassLoader;
+        private final CompositeIndex index;
+        /* The deployment module part of the scan results keyed by query and package, shared by all resolvers of the deployment */
+        private final Map<String, Set<Class<?>>> scanResults;
+        private volatile boolean customFilters;
+
         PackageScanClassResolverImpl(ModuleClassLoader classLoader) {
+            this(classLoader, null, null);
+        }
+
+        PackageScanClassResolverImpl(ModuleClassLoader classLoader, CompositeIndex index, Map<String, Set<Class<?>>> scanResults) {
+            this.moduleClassLoader = classLoader;
+            this.index = index;
+            this.scanResults = scanResults;
             addClassLoader(classLoader);
         }
 
+        @Override
+        public void addFilter(PackageScanFilter filter) {
+            customFilters = true;
+            super.addFilter(filter);
+        }
+
+        @Override
+        public Set<Class<?>> findAnnotated(Class<? extends Annotation> annotation, String... packageNames) {
+            if (!isIndexed() || packageNames == null) {
+                return super.findAnnotated(annotation, packageNames);
+            }
+            final Set<DotName> names = Collections.singleton(DotName.createSimple(annotation.getName()));
+            return findIndexed("annotated " + annotation.getName(), packageNames, new AnnotatedWithPackageScanFilter(annotation, true),
+                    info -> mayBeAnnotated(info, names, new HashSet<>()));
+        }
+
+        @Override
+        public Set<Class<?>> findAnnotated(Set<Class<? extends Annotation>> annotations, String... packageNames) {
+            if (!isIndexed() || packageNames == null) {
+                return super.findAnnotated(annotations, packageNames);
+            }
+            final Set<DotName> names = new HashSet<>();
+            final Set<String> sorted = new TreeSet<>();
+            for (Class<? extends Annotation> annotation : annotations) {
+                names.add(DotName.createSimple(annotation.getName()));
+                sorted.add(annotation.getName());
+            }
+            return findIndexed("annotated any " + sorted, packageNames, new AnnotatedWithAnyPackageScanFilter(annotations, true),
+                    info -> mayBeAnnotated(info, names, new HashSet<>()));
+        }
+
+        @Override
+        public Set<Class<?>> findImplementations(Class<?> parent, String... packageNames) {
+            if (!isIndexed() || packageNames == null) {
+                return super.findImplementations(parent, packageNames);
+            }
+            final DotName parentName = DotName.createSimple(parent.getName());
+            return findIndexed("assignable " + parent.getName(), packageNames, new AssignableToPackageScanFilter(parent),
+                    info -> mayBeAssignable(info.name(), parentName, new HashSet<>()));
+        }
+
+        private boolean isIndexed() {
+            /* Filters added through addFilter() are not part of the scan result keys */
+            return index != null && !customFilters;
+        }
+
+        private Set<Class<?>> findIndexed(String query, String[] packageNames, PackageScanFilter filter, Predicate<ClassInfo> candidate) {
+            final Set<Class<?>> classes = new LinkedHashSet<>();
+            for (String packageName : packageNames) {
+                final String path = packageName.replace('.', '/');
+                for (ClassLoader classLoader : getClassLoaders()) {
+                    if (classLoader == moduleClassLoader) {
+                        final String key = query + " in " + path;
+                        Set<Class<?>> result = scanResults.get(key);
+                        if (result == null) {
+                            final Set<Class<?>> found = new LinkedHashSet<>();
+                            findInModule(filter, path, candidate, found);
+                            final Set<Class<?>> existing = scanResults.putIfAbsent(key, Collections.unmodifiableSet(found));
+                            result = existing != null ? existing : found;
+                        }
+                        classes.addAll(result);
+                    } else {
+                        find(filter, path, classLoader, classes);
+                    }
+                }
+            }
+            return classes;
+        }
+
+        /**
+         * Tests only those classes of the given package which are either not part of the deployment index or which
+         * the given candidate predicate accepts.
+         */
+        private void findInModule(PackageScanFilter filter, String packageName, Predicate<ClassInfo> candidate, Set<Class<?>> classes) {
+            LOGGER.debug("Searching for: {} in package: {} using index of classloader: {}", new Object[] { filter, packageName, moduleClassLoader });
+
+            int classLoadCount = classes.size();
+            int skipped = 0;
+
+            Iterator<Resource> itres = moduleClassLoader.iterateResources(packageName, true);
+            while (itres.hasNext()) {
+                String resname = itres.next().getName();
+                if (resname.endsWith(".class")) {
+                    String className = resname.substring(0, resname.length() - 6).replace('/', '.');
+                    ClassInfo info = index.getClassByName(DotName.createSimple(className));
+                    if (info != null && !candidate.test(info)) {
+                        skipped++;
+                        continue;
+                    }
+                    try {
+                        Class<?> loadedClass = moduleClassLoader.loadClass(className);
+                        if (filter.matches(loadedClass)) {
+                            LOGGER.debug("Found type in package scan: {}", loadedClass.getName());
+                            classes.add(loadedClass);
+                        }
+                    } catch (ClassNotFoundException ex) {
+                        //ignore
+                    }
+                }
+            }
+            LOGGER.debug("Skipped loading {} classes not matching: {}", skipped, filter);
+
+            // No classes found by previous package scan so delegate to super
+            if (classes.size() == classLoadCount) {
+                super.find(filter, packageName, moduleClassLoader, classes);
+            }
+        }
+
+        /**
+         * @return {@code false} only if the index proves that the given type is not assignable to the given parent
+         */
+        private boolean mayBeAssignable(DotName name, DotName parent, Set<DotName> visited) {
+            if (name == null || OBJECT.equals(name) || !visited.add(name)) {
+                return false;
+            }
+            if (name.equals(parent)) {
+                return true;
+            }
+            ClassInfo info = index.getClassByName(name);
+            if (info == null) {
+                /* JDK types cannot extend application types, for any other type the class needs to be loaded */
+                return !isJdkType(name) || isJdkType(parent);
+            }
+            if (mayBeAssignable(info.superName(), parent, visited)) {
+                return true;
+            }
+            for (DotName interfaceName : info.interfaceNames()) {
+                if (mayBeAssignable(interfaceName, parent, visited)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return {@code false} only if the index proves that neither the given class nor its superclasses are
+         *         annotated or meta-annotated with any of the given annotations
+         */
+        private boolean mayBeAnnotated(ClassInfo info, Set<DotName> annotations, Set<DotName> visited) {
+            for (AnnotationInstance instance : info.classAnnotations()) {
+                if (mayBeMetaAnnotated(instance.name(), annotations, visited)) {
+                    return true;
+                }
+            }
+            DotName superName = info.superName();
+            if (superName == null || OBJECT.equals(superName)) {
+                return false;
+            }
+            ClassInfo superInfo = index.getClassByName(superName);
+            if (superInfo == null) {
+                /* The superclass may carry an @Inherited annotation */
+                return !isJdkType(superName);
+            }
+            return mayBeAnnotated(superInfo, annotations, visited);
+        }
+
+        private boolean mayBeMetaAnnotated(DotName annotationName, Set<DotName> annotations, Set<DotName> visited) {
+            if (annotations.contains(annotationName)) {
+                return true;
+            }
+            if (!visited.add(annotationName)) {
+                return false;
+            }
+            ClassInfo info = index.getClassByName(annotationName);
+            if (info == null) {
+                /* JDK annotations are only meta-annotated with JDK annotations */
+                if (isJdkType(annotationName)) {
+                    for (DotName name : annotations) {
+                        if (isJdkType(name)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                return true;
+            }
+            for (AnnotationInstance instance : info.classAnnotations()) {
+                if (mayBeMetaAnnotated(instance.name(), annotations, visited)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isJdkType(DotName name) {
+            return name.toString().startsWith("java.");
+        }
+
         @Override
         protected void find(PackageScanFilter filter, String packageName, ClassLoader classLoader, Set<Class<?>> classes) {
             LOGGER.debug("Searching for: {} in package: {} using classloader: {}", new Object[] { filter, packageName, classLoader });
@@ -70,15 +300,15 @@ public final class PackageScanClassResolverAssociationHandler implements Context
 
             int classLoadCount = classes.size();
 
-            ModuleClassLoader moduleClassLoader = (ModuleClassLoader) classLoader;
-            Iterator<Resource> itres = moduleClassLoader.iterateResources("/", true);
+            ModuleClassLoader moduleLoader = (ModuleClassLoader) classLoader;
+            Iterator<Resource> itres = moduleLoader.iterateResources("/", true);
             while (itres.hasNext()) {
                 Resource resource = itres.next();
                 String resname = resource.getName();
                 if (resname.startsWith(packageName) && resname.endsWith(".class")) {
                     String className = resname.substring(0, resname.length() - 6).replace('/', '.');
                     try {
-                        Class<?> loadedClass = moduleClassLoader.loadClass(className);
+                        Class<?> loadedClass = moduleLoader.loadClass(className);
                         if (filter.matches(loadedClass)) {
                             LOGGER.debug("Found type in package scan: {}", loadedClass.getName());
                             classes.add(loadedClass);
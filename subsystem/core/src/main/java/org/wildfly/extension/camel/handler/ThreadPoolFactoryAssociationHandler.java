@@ -0,0 +1,132 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.handler;
+
+import static org.wildfly.extension.camel.CamelLogger.LOGGER;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.impl.DefaultThreadPoolFactory;
+import org.apache.camel.spi.ExecutorServiceManager;
+import org.apache.camel.spi.ThreadPoolFactory;
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.wildfly.extension.camel.ContextCreateHandler;
+import org.wildfly.extension.camel.parser.SubsystemState;
+
+/**
+ * A {@link ContextCreateHandler} that makes the Camel thread pools use the threads of the server's
+ * {@code ManagedThreadFactory} and applies the thread pool profiles configured in the subsystem.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public final class ThreadPoolFactoryAssociationHandler implements ContextCreateHandler {
+
+    /** The id of the subsystem thread pool profile that overrides the default profile of the contexts */
+    public static final String DEFAULT_PROFILE_ID = "default";
+
+    private final SubsystemState subsystemState;
+    private final ThreadFactory managedThreadFactory;
+
+    /**
+     * @param managedThreadFactory the thread factory of the Camel thread pools or {@code null} to keep the one of Camel
+     */
+    public ThreadPoolFactoryAssociationHandler(SubsystemState subsystemState, ThreadFactory managedThreadFactory) {
+        this.subsystemState = subsystemState;
+        this.managedThreadFactory = managedThreadFactory;
+    }
+
+    @Override
+    public void setup(CamelContext camelctx) {
+        ExecutorServiceManager manager = camelctx.getExecutorServiceManager();
+
+        if (managedThreadFactory != null) {
+            manager.setThreadPoolFactory(new WildFlyThreadPoolFactory(managedThreadFactory));
+        }
+
+        for (ThreadPoolProfile profile : subsystemState.getThreadPoolProfiles()) {
+            if (DEFAULT_PROFILE_ID.equals(profile.getId())) {
+                // Unlike setDefaultThreadPoolProfile, this does not log every created context at INFO level
+                applyDefaults(profile, manager.getDefaultThreadPoolProfile());
+                LOGGER.debug("Using default thread pool profile {} for {}", manager.getDefaultThreadPoolProfile(), camelctx.getName());
+            } else {
+                // Camel adds the default values to the registered profile, so every context gets its own copy
+                manager.registerThreadPoolProfile(profile.clone());
+            }
+        }
+    }
+
+    /**
+     * Copies the values set in the given subsystem profile to the default profile of a context; the values not set in
+     * the subsystem keep the Camel defaults.
+     */
+    static void applyDefaults(ThreadPoolProfile profile, ThreadPoolProfile defaultProfile) {
+        if (profile.getPoolSize() != null) {
+            defaultProfile.setPoolSize(profile.getPoolSize());
+        }
+        if (profile.getMaxPoolSize() != null) {
+            defaultProfile.setMaxPoolSize(profile.getMaxPoolSize());
+        }
+        if (profile.getKeepAliveTime() != null) {
+            defaultProfile.setKeepAliveTime(profile.getKeepAliveTime());
+            defaultProfile.setTimeUnit(profile.getTimeUnit());
+        }
+        if (profile.getMaxQueueSize() != null) {
+            defaultProfile.setMaxQueueSize(profile.getMaxQueueSize());
+        }
+        if (profile.getAllowCoreThreadTimeOut() != null) {
+            defaultProfile.setAllowCoreThreadTimeOut(profile.getAllowCoreThreadTimeOut());
+        }
+        if (profile.getRejectedPolicy() != null) {
+            defaultProfile.setRejectedPolicy(profile.getRejectedPolicy());
+        }
+    }
+
+    /**
+     * A {@link DefaultThreadPoolFactory} creating all threads through the given {@link ThreadFactory} rather than the
+     * one passed by Camel.
+     */
+    static final class WildFlyThreadPoolFactory extends DefaultThreadPoolFactory {
+
+        private final ThreadFactory managedThreadFactory;
+
+        WildFlyThreadPoolFactory(ThreadFactory managedThreadFactory) {
+            this.managedThreadFactory = managedThreadFactory;
+        }
+
+        @Override
+        public ExecutorService newCachedThreadPool(ThreadFactory threadFactory) {
+            return super.newCachedThreadPool(managedThreadFactory);
+        }
+
+        @Override
+        public ExecutorService newThreadPool(ThreadPoolProfile profile, ThreadFactory threadFactory) {
+            return super.newThreadPool(profile, managedThreadFactory);
+        }
+
+        @Override
+        public ScheduledExecutorService newScheduledThreadPool(ThreadPoolProfile profile, ThreadFactory threadFactory) {
+            return super.newScheduledThreadPool(profile, managedThreadFactory);
+        }
+    }
+}
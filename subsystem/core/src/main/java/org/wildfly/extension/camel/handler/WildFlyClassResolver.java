@@ -24,8 +24,14 @@ import static org.wildfly.extension.camel.CamelLogger.LOGGER;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.lang.model.SourceVersion;
 
@@ -40,13 +46,21 @@ import org.wildfly.camel.utils.IllegalArgumentAssertion;
 /**
  * A class resolver that delegates to a module class loader
  *
+ * The results of {@link #loadClass(String, ClassLoader)} including the failed lookups of valid class names are cached
+ * because Camel resolves the same names over and over at runtime. The cached classes are only weakly referenced so that
+ * the cache does not keep the classes of other modules loaded.
+ *
  * @author Thomas.Diesler@jboss.com
  * @since 11-Feb-2015
  */
 final class WildFlyClassResolver extends DefaultClassResolver {
 
+    /** The maximum number of cached lookups */
+    static final int MAX_CACHED_LOOKUPS = 1024;
+
     private final ModuleClassLoader classLoader;
     private final ModuleIdentifier moduleId;
+    private final LookupCache lookups = new LookupCache(MAX_CACHED_LOOKUPS);
 
     WildFlyClassResolver(Module module) {
         IllegalArgumentAssertion.assertNotNull(module, "module");
@@ -65,17 +79,37 @@ final class WildFlyClassResolver extends DefaultClassResolver {
     @Override
     protected Class<?> loadClass(String className, ClassLoader defaultClassLoader) {
         IllegalArgumentAssertion.assertNotNull(className, "className");
+        if (!SourceVersion.isName(className) || !className.contains(".")) {
+            return null;
+        }
+        Lookup cached = lookups.get(className);
+        if (cached != null) {
+            return cached.getLoadedClass();
+        }
         Class<?> loadedClass = null;
-        if (SourceVersion.isName(className) && className.contains(".")) {
-            try {
-                loadedClass = classLoader.loadClass(className);
-            } catch (ClassNotFoundException e) {
-                LOGGER.debug("Cannot load '{}' from module: {}", className, moduleId);
-            }
+        try {
+            loadedClass = classLoader.loadClass(className);
+        } catch (ClassNotFoundException e) {
+            LOGGER.debug("Cannot load '{}' from module: {}", className, moduleId);
         }
+        lookups.put(className, loadedClass);
         return loadedClass;
     }
 
+    /**
+     * @return the number of class lookups answered from the cache
+     */
+    long getHitCount() {
+        return lookups.getHitCount();
+    }
+
+    /**
+     * @return the number of class lookups that had to ask the module class loader
+     */
+    long getMissCount() {
+        return lookups.getMissCount();
+    }
+
     public InputStream loadResourceAsStream(String uri) {
         IllegalArgumentAssertion.assertNotNull(uri, "uri");
         String resolvedName = FileUtil.compactPath(uri, '/');
@@ -98,4 +132,94 @@ final class WildFlyClassResolver extends DefaultClassResolver {
             return null;
         }
     }
+
+    /**
+     * The cached lookups, bounded by second chance eviction: a lookup that was used since it was last passed over by
+     * the eviction is kept, the first unused lookup or lookup of a collected class is evicted. The reads are lock free;
+     * the insertions, which only follow a class loader lookup, are serialized so that the bound holds.
+     */
+    static final class LookupCache {
+
+        private final int maxEntries;
+        private final Map<String, Lookup> lookups = new ConcurrentHashMap<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        LookupCache(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * @return the cached lookup of the given name or {@code null} if there is none or its class was collected
+         */
+        Lookup get(String className) {
+            Lookup lookup = lookups.get(className);
+            if (lookup != null && (lookup.isNotFound() || lookup.getLoadedClass() != null)) {
+                lookup.used = true;
+                hits.increment();
+                return lookup;
+            }
+            misses.increment();
+            return null;
+        }
+
+        /**
+         * @param loadedClass the class or {@code null} if the name cannot be loaded
+         */
+        synchronized void put(String className, Class<?> loadedClass) {
+            if (lookups.size() >= maxEntries && !lookups.containsKey(className)) {
+                evict();
+            }
+            lookups.put(className, new Lookup(loadedClass));
+        }
+
+        int size() {
+            return lookups.size();
+        }
+
+        long getHitCount() {
+            return hits.sum();
+        }
+
+        long getMissCount() {
+            return misses.sum();
+        }
+
+        private void evict() {
+            // All lookups may have been used, in which case the second pass evicts the first one
+            for (int pass = 0; pass < 2; pass++) {
+                for (Iterator<Lookup> it = lookups.values().iterator(); it.hasNext();) {
+                    Lookup lookup = it.next();
+                    if (lookup.used && (lookup.isNotFound() || lookup.getLoadedClass() != null)) {
+                        lookup.used = false;
+                    } else {
+                        it.remove();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    static final class Lookup {
+
+        /** {@code null} if the name cannot be loaded */
+        private final Reference<Class<?>> reference;
+        private volatile boolean used;
+
+        Lookup(Class<?> loadedClass) {
+            this.reference = loadedClass != null ? new WeakReference<>(loadedClass) : null;
+        }
+
+        boolean isNotFound() {
+            return reference == null;
+        }
+
+        /**
+         * @return the loaded class or {@code null} if the name cannot be loaded or the class was collected
+         */
+        Class<?> getLoadedClass() {
+            return reference != null ? reference.get() : null;
+        }
+    }
 }
@@ -25,19 +25,25 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUB
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.ObjectMapAttributeDefinition;
+import org.jboss.as.controller.ObjectTypeAttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.ReloadRequiredRemoveStepHandler;
+import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleListAttributeDefinition;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.descriptions.ResourceDescriptionResolver;
 import org.jboss.as.controller.operations.common.GenericSubsystemDescribeHandler;
+import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
@@ -52,6 +58,27 @@ final class CamelRootResource extends SimpleResourceDefinition {
     private static final ResourceDescriptionResolver RESOLVER = CamelResolvers.getResolver(CamelExtension.SUBSYSTEM_NAME);
     private static final SubsystemState subsystemState = new SubsystemState();
 
+    static final SimpleAttributeDefinition PARALLEL_CONTEXT_ACTIVATION = new SimpleAttributeDefinitionBuilder(ModelConstants.PARALLEL_CONTEXT_ACTIVATION, ModelType.BOOLEAN, true)
+            .setAllowExpression(true)
+            .setDefaultValue(new ModelNode(false))
+            .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+            .build();
+
+    static final SimpleAttributeDefinition MANAGED_THREAD_FACTORY = new SimpleAttributeDefinitionBuilder(ModelConstants.MANAGED_THREAD_FACTORY, ModelType.STRING, true)
+            .setAllowExpression(true)
+            .setDefaultValue(new ModelNode("java:jboss/ee/concurrency/factory/default"))
+            .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+            .build();
+
+    private static final String[] ENDPOINT_METRICS_FIELDS = { "requests", "errors", "in-flight", "mean-latency-us",
+            "p50-latency-us", "p90-latency-us", "p99-latency-us", "max-latency-us" };
+
+    static final ObjectMapAttributeDefinition ENDPOINT_METRICS = ObjectMapAttributeDefinition.Builder.of(ModelConstants.ENDPOINT_METRICS,
+            ObjectTypeAttributeDefinition.Builder.of(ModelConstants.ENDPOINT_METRICS, metricsFields()).build())
+            .setRequired(false)
+            .setStorageRuntime()
+            .build();
+
     final boolean registerRuntimeOnly;
 
     CamelRootResource(boolean registerRuntimeOnly) {
@@ -59,19 +86,36 @@ final class CamelRootResource extends SimpleResourceDefinition {
         this.registerRuntimeOnly = registerRuntimeOnly;
     }
 
+    private static AttributeDefinition[] metricsFields() {
+        AttributeDefinition[] result = new AttributeDefinition[ENDPOINT_METRICS_FIELDS.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new SimpleAttributeDefinitionBuilder(ENDPOINT_METRICS_FIELDS[i], ModelType.LONG, false).build();
+        }
+        return result;
+    }
+
     @Override
     public void registerOperations(ManagementResourceRegistration resourceRegistration) {
         super.registerOperations(resourceRegistration);
         resourceRegistration.registerOperationHandler(GenericSubsystemDescribeHandler.DEFINITION, GenericSubsystemDescribeHandler.INSTANCE);
     }
 
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        super.registerAttributes(resourceRegistration);
+        resourceRegistration.registerReadWriteAttribute(PARALLEL_CONTEXT_ACTIVATION, null, new ReloadRequiredWriteAttributeHandler(PARALLEL_CONTEXT_ACTIVATION));
+        resourceRegistration.registerReadWriteAttribute(MANAGED_THREAD_FACTORY, null, new ReloadRequiredWriteAttributeHandler(MANAGED_THREAD_FACTORY));
+    }
+
     @Override
     public void registerChildren(ManagementResourceRegistration resourceRegistration) {
         resourceRegistration.registerSubModel(new CamelContextResource(subsystemState));
+        resourceRegistration.registerSubModel(new ThreadPoolProfileResource(subsystemState));
         if (registerRuntimeOnly) {
             AttributeDefinition eldef = new SimpleAttributeDefinitionBuilder("dummy", ModelType.STRING, false).build();
             AttributeDefinition attdef = new SimpleListAttributeDefinition.Builder(ModelConstants.ENDPOINTS, eldef).setStorageRuntime().build();
             resourceRegistration.registerReadOnlyAttribute(attdef, new CamelRuntimeOnlyHandler());
+            resourceRegistration.registerReadOnlyAttribute(ENDPOINT_METRICS, new CamelRuntimeOnlyHandler());
         }
     }
 
@@ -93,6 +137,20 @@ final class CamelRootResource extends SimpleResourceDefinition {
                     values.add(new ModelNode(aux.toString()));
                 }
                 context.getResult().set(values);
+            } else if (ModelConstants.ENDPOINT_METRICS.equals(name)) {
+                ModelNode result = context.getResult().setEmptyObject();
+                for (Map.Entry<String, HttpEndpointMetrics> en : subsystemState.getRuntimeState().getEndpointMetrics().entrySet()) {
+                    HttpEndpointMetrics metrics = en.getValue();
+                    ModelNode node = result.get(en.getKey());
+                    node.get("requests").set(metrics.getRequestCount());
+                    node.get("errors").set(metrics.getErrorCount());
+                    node.get("in-flight").set(metrics.getInFlightCount());
+                    node.get("mean-latency-us").set(metrics.getMeanLatencyMicros());
+                    node.get("p50-latency-us").set(metrics.getLatencyPercentileMicros(50));
+                    node.get("p90-latency-us").set(metrics.getLatencyPercentileMicros(90));
+                    node.get("p99-latency-us").set(metrics.getLatencyPercentileMicros(99));
+                    node.get("max-latency-us").set(metrics.getMaxLatencyMicros());
+                }
             }
             context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
         }
@@ -25,6 +25,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
 import static org.jboss.as.controller.parsing.ParseUtils.missingRequired;
+import static org.jboss.as.controller.parsing.ParseUtils.requireNoContent;
 import static org.jboss.as.controller.parsing.ParseUtils.requireNoNamespaceAttribute;
 import static org.jboss.as.controller.parsing.ParseUtils.unexpectedAttribute;
 import static org.jboss.as.controller.parsing.ParseUtils.unexpectedElement;
@@ -65,6 +66,24 @@ final class CamelSubsystemParser implements Namespace10, XMLStreamConstants, XML
         subsystemAdd.get(OP_ADDR).set(address);
         operations.add(subsystemAdd);
 
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String attrValue = reader.getAttributeValue(i);
+            final Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case PARALLEL_CONTEXT_ACTIVATION: {
+                    CamelRootResource.PARALLEL_CONTEXT_ACTIVATION.parseAndSetParameter(attrValue, subsystemAdd, reader);
+                    break;
+                }
+                case MANAGED_THREAD_FACTORY: {
+                    CamelRootResource.MANAGED_THREAD_FACTORY.parseAndSetParameter(attrValue, subsystemAdd, reader);
+                    break;
+                }
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+
         while (reader.hasNext() && reader.nextTag() != END_ELEMENT) {
             switch (Namespace.forUri(reader.getNamespaceURI())) {
                 case VERSION_1_0: {
@@ -74,6 +93,10 @@ final class CamelSubsystemParser implements Namespace10, XMLStreamConstants, XML
                             parseCamelContext(reader, address, operations);
                             break;
                         }
+                        case THREAD_POOL_PROFILE: {
+                            parseThreadPoolProfile(reader, address, operations);
+                            break;
+                        }
                         default:
                             throw unexpectedElement(reader);
                     }
@@ -122,4 +145,55 @@ final class CamelSubsystemParser implements Namespace10, XMLStreamConstants, XML
 
         operations.add(propNode);
     }
+
+    private void parseThreadPoolProfile(XMLExtendedStreamReader reader, ModelNode address, List<ModelNode> operations) throws XMLStreamException {
+
+        String profileId = null;
+        ModelNode profileNode = new ModelNode();
+        profileNode.get(OP).set(ADD);
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String attrValue = reader.getAttributeValue(i);
+            final Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case ID: {
+                    profileId = attrValue;
+                    break;
+                }
+                case POOL_SIZE: {
+                    ThreadPoolProfileResource.POOL_SIZE.parseAndSetParameter(attrValue, profileNode, reader);
+                    break;
+                }
+                case MAX_POOL_SIZE: {
+                    ThreadPoolProfileResource.MAX_POOL_SIZE.parseAndSetParameter(attrValue, profileNode, reader);
+                    break;
+                }
+                case KEEP_ALIVE_TIME: {
+                    ThreadPoolProfileResource.KEEP_ALIVE_TIME.parseAndSetParameter(attrValue, profileNode, reader);
+                    break;
+                }
+                case MAX_QUEUE_SIZE: {
+                    ThreadPoolProfileResource.MAX_QUEUE_SIZE.parseAndSetParameter(attrValue, profileNode, reader);
+                    break;
+                }
+                case ALLOW_CORE_THREAD_TIMEOUT: {
+                    ThreadPoolProfileResource.ALLOW_CORE_THREAD_TIMEOUT.parseAndSetParameter(attrValue, profileNode, reader);
+                    break;
+                }
+                case REJECTED_POLICY: {
+                    ThreadPoolProfileResource.REJECTED_POLICY.parseAndSetParameter(attrValue, profileNode, reader);
+                    break;
+                }
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+        if (profileId == null) {
+            throw missingRequired(reader, Collections.singleton(Attribute.ID));
+        }
+        requireNoContent(reader);
+
+        profileNode.get(OP_ADDR).set(address).add(ModelConstants.THREAD_POOL_PROFILE, profileId);
+        operations.add(profileNode);
+    }
 }
@@ -25,6 +25,7 @@ import java.util.TreeSet;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 
+import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.persistence.SubsystemMarshallingContext;
 import org.jboss.dmr.ModelNode;
 import org.jboss.staxmapper.XMLElementWriter;
@@ -50,6 +51,8 @@ final class CamelSubsystemWriter implements XMLStreamConstants, XMLElementWriter
     public void writeContent(XMLExtendedStreamWriter writer, SubsystemMarshallingContext context) throws XMLStreamException {
         context.startSubsystemElement(Namespace.CURRENT.getUriString(), false);
         ModelNode node = context.getModelNode();
+        CamelRootResource.PARALLEL_CONTEXT_ACTIVATION.marshallAsAttribute(node, writer);
+        CamelRootResource.MANAGED_THREAD_FACTORY.marshallAsAttribute(node, writer);
 
         if (node.hasDefined(ModelConstants.CONTEXT)) {
             ModelNode properties = node.get(ModelConstants.CONTEXT);
@@ -62,6 +65,18 @@ final class CamelSubsystemWriter implements XMLStreamConstants, XMLElementWriter
             }
         }
 
+        if (node.hasDefined(ModelConstants.THREAD_POOL_PROFILE)) {
+            ModelNode profiles = node.get(ModelConstants.THREAD_POOL_PROFILE);
+            for (String id : new TreeSet<String>(profiles.keys())) {
+                ModelNode profile = profiles.get(id);
+                writer.writeEmptyElement(Element.THREAD_POOL_PROFILE.getLocalName());
+                writer.writeAttribute(Attribute.ID.getLocalName(), id);
+                for (SimpleAttributeDefinition attr : ThreadPoolProfileResource.ATTRIBUTES) {
+                    attr.marshallAsAttribute(profile, writer);
+                }
+            }
+        }
+
         writer.writeEndElement();
     }
 }
@@ -0,0 +1,158 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.parser;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free request counters and a latency histogram of a single HTTP endpoint (method and path). Recording does not
+ * allocate.
+ *
+ * The histogram has log-linear buckets like HDR histograms: every power of two of microseconds is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, which bounds the relative error of the reported percentiles by 12.5%.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public final class HttpEndpointMetrics {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Latencies of 2^40 microseconds (about 12 days) and more land in the last bucket */
+    private static final int MAX_MAGNITUDE = 40;
+    static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder timedRequests = new LongAdder();
+    private final LongAdder totalLatencyMicros = new LongAdder();
+    private final LongAccumulator maxLatencyMicros = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * @param micros a latency in microseconds
+     * @return the index of the histogram bucket for the given latency
+     */
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return micros < 0 ? 0 : (int) micros;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((micros >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @param index a histogram bucket index
+     * @return the greatest latency in microseconds falling into the given bucket
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long sub = SUB_BUCKETS + index % SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * To be called when a request enters the endpoint.
+     */
+    public void requestStarted() {
+        inFlight.increment();
+    }
+
+    /**
+     * To be called when the response of a request previously passed to {@link #requestStarted()} was sent.
+     *
+     * @param durationNanos how long the request took or a negative number if the start time of the request is unknown,
+     *        in which case the request is counted but its latency is not recorded
+     * @param statusCode the HTTP status code of the response; codes greater than or equal to 500 count as errors
+     */
+    public void requestCompleted(long durationNanos, int statusCode) {
+        inFlight.decrement();
+        requests.increment();
+        if (statusCode >= 500) {
+            errors.increment();
+        }
+        if (durationNanos < 0) {
+            return;
+        }
+        final long micros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+        timedRequests.increment();
+        totalLatencyMicros.add(micros);
+        maxLatencyMicros.accumulate(micros);
+        latencyBuckets.incrementAndGet(bucketIndex(micros));
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getInFlightCount() {
+        return inFlight.sum();
+    }
+
+    public long getMeanLatencyMicros() {
+        final long count = timedRequests.sum();
+        return count == 0 ? 0 : totalLatencyMicros.sum() / count;
+    }
+
+    public long getMaxLatencyMicros() {
+        return maxLatencyMicros.get();
+    }
+
+    /**
+     * @param percentile a number between {@code 0} and {@code 100}
+     * @return the upper bound in microseconds of the bucket containing the given percentile of the completed requests
+     *         or {@code 0} if there were none
+     */
+    public long getLatencyPercentileMicros(double percentile) {
+        final long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = latencyBuckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMaxLatencyMicros());
+            }
+        }
+        return getMaxLatencyMicros();
+    }
+}
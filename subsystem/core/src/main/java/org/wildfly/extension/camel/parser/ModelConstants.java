@@ -36,4 +36,15 @@ interface ModelConstants {
 
     String ENDPOINTS = "endpoints";
     String ENDPOINT_URL = "url";
+    String ENDPOINT_METRICS = "endpoint-metrics";
+    String PARALLEL_CONTEXT_ACTIVATION = "parallel-context-activation";
+    String MANAGED_THREAD_FACTORY = "managed-thread-factory";
+
+    String THREAD_POOL_PROFILE = "thread-pool-profile";
+    String POOL_SIZE = "pool-size";
+    String MAX_POOL_SIZE = "max-pool-size";
+    String KEEP_ALIVE_TIME = "keep-alive-time";
+    String MAX_QUEUE_SIZE = "max-queue-size";
+    String ALLOW_CORE_THREAD_TIMEOUT = "allow-core-thread-timeout";
+    String REJECTED_POLICY = "rejected-policy";
     }
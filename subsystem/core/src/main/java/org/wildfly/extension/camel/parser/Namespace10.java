@@ -36,6 +36,14 @@ interface Namespace10 {
     enum Attribute {
         UNKNOWN(null),
         ID("id"),
+        PARALLEL_CONTEXT_ACTIVATION(ModelConstants.PARALLEL_CONTEXT_ACTIVATION),
+        MANAGED_THREAD_FACTORY(ModelConstants.MANAGED_THREAD_FACTORY),
+        POOL_SIZE(ModelConstants.POOL_SIZE),
+        MAX_POOL_SIZE(ModelConstants.MAX_POOL_SIZE),
+        KEEP_ALIVE_TIME(ModelConstants.KEEP_ALIVE_TIME),
+        MAX_QUEUE_SIZE(ModelConstants.MAX_QUEUE_SIZE),
+        ALLOW_CORE_THREAD_TIMEOUT(ModelConstants.ALLOW_CORE_THREAD_TIMEOUT),
+        REJECTED_POLICY(ModelConstants.REJECTED_POLICY),
         ;
         private final String name;
 
@@ -77,6 +85,7 @@ interface Namespace10 {
         // must be first
         UNKNOWN(null),
         CAMEL_CONTEXT("camelContext"),
+        THREAD_POOL_PROFILE("threadPoolProfile"),
         ;
 
         private final String name;
@@ -28,14 +28,18 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
+import org.apache.camel.spi.ThreadPoolProfile;
 import org.wildfly.extension.camel.CamelSubsytemExtension;
 
 
@@ -49,7 +53,13 @@ public final class SubsystemState  {
 
     private final Map<String, String> contextDefinitions = new HashMap<String,String>();
     private final List<CamelSubsytemExtension> extensions = new ArrayList<>();
+    private final Map<String, List<CamelSubsytemExtension>> componentExtensions = new HashMap<>();
+    private final List<CamelSubsytemExtension> undeclaredComponentExtensions = new ArrayList<>();
+    private final List<CamelSubsytemExtension> undeclaredComponentExtensionsView = Collections.unmodifiableList(undeclaredComponentExtensions);
     private final RuntimeState runtimeState = new RuntimeState();
+    private volatile boolean parallelContextActivation;
+    private volatile String managedThreadFactory;
+    private final Map<String, ThreadPoolProfile> threadPoolProfiles = new ConcurrentHashMap<>();
 
     public SubsystemState() {
         ClassLoader classLoader = SubsystemState.class.getClassLoader();
@@ -57,12 +67,76 @@ public final class SubsystemState  {
         while (it.hasNext()) {
             extensions.add(it.next());
         }
+
+        // Index the extensions by the component names they resolve, keeping the extension order
+        Set<String> declaredNames = new HashSet<>();
+        for (CamelSubsytemExtension extension : extensions) {
+            Set<String> names = extension.getComponentNames();
+            if (names == null) {
+                undeclaredComponentExtensions.add(extension);
+            } else {
+                declaredNames.addAll(names);
+            }
+        }
+        for (String name : declaredNames) {
+            List<CamelSubsytemExtension> list = new ArrayList<>();
+            for (CamelSubsytemExtension extension : extensions) {
+                Set<String> names = extension.getComponentNames();
+                if (names == null || names.contains(name)) {
+                    list.add(extension);
+                }
+            }
+            componentExtensions.put(name, Collections.unmodifiableList(list));
+        }
     }
 
     public RuntimeState getRuntimeState() {
         return runtimeState;
     }
 
+    /**
+     * @return the subsystem wide default for activating the Camel contexts of a deployment concurrently; can be
+     *         overridden per deployment in {@code jboss-all.xml}
+     */
+    public boolean isParallelContextActivation() {
+        return parallelContextActivation;
+    }
+
+    public void setParallelContextActivation(boolean parallelContextActivation) {
+        this.parallelContextActivation = parallelContextActivation;
+    }
+
+    /**
+     * @return the JNDI name of the {@code ManagedThreadFactory} creating the threads of the Camel thread pools or
+     *         {@code null} to let Camel create them
+     */
+    public String getManagedThreadFactory() {
+        return managedThreadFactory;
+    }
+
+    public void setManagedThreadFactory(String managedThreadFactory) {
+        this.managedThreadFactory = managedThreadFactory;
+    }
+
+    /**
+     * @return copies of the configured thread pool profiles
+     */
+    public List<ThreadPoolProfile> getThreadPoolProfiles() {
+        List<ThreadPoolProfile> result = new ArrayList<>(threadPoolProfiles.size());
+        for (ThreadPoolProfile profile : threadPoolProfiles.values()) {
+            result.add(profile.clone());
+        }
+        return result;
+    }
+
+    public void putThreadPoolProfile(ThreadPoolProfile profile) {
+        threadPoolProfiles.put(profile.getId(), profile);
+    }
+
+    public ThreadPoolProfile removeThreadPoolProfile(String id) {
+        return threadPoolProfiles.remove(id);
+    }
+
     public Set<String> getContextDefinitionNames() {
         synchronized (contextDefinitions) {
             return contextDefinitions.keySet();
@@ -91,6 +165,15 @@ public final class SubsystemState  {
         return Collections.unmodifiableList(extensions);
     }
 
+    /**
+     * @param name a component name
+     * @return the extensions which may resolve the component with the given name in the order they need to be asked
+     */
+    public List<CamelSubsytemExtension> getComponentExtensions(String name) {
+        List<CamelSubsytemExtension> result = componentExtensions.get(name);
+        return result != null ? result : undeclaredComponentExtensionsView;
+    }
+
     public void processExtensions(Consumer<CamelSubsytemExtension> consumer) {
         extensions.iterator().forEachRemaining(consumer);
     }
@@ -98,6 +181,7 @@ public final class SubsystemState  {
     public static final class RuntimeState  {
 
         private final Set<URL> endpoints = new LinkedHashSet<>();
+        private final Map<String, HttpEndpointMetrics> endpointMetrics = new ConcurrentHashMap<>();
         private URL httpHost;
 
         public URL getHttpHost() {
@@ -136,6 +220,25 @@ public final class SubsystemState  {
             }
         }
 
+        /**
+         * @param key the HTTP method and path of the endpoint, e.g. {@code GET /my-app/orders/{id}}
+         * @return the {@link HttpEndpointMetrics} registered under the given key, possibly newly created
+         */
+        public HttpEndpointMetrics addEndpointMetrics(String key) {
+            return endpointMetrics.computeIfAbsent(key, k -> new HttpEndpointMetrics());
+        }
+
+        public HttpEndpointMetrics removeEndpointMetrics(String key) {
+            return endpointMetrics.remove(key);
+        }
+
+        /**
+         * @return a snapshot of the registered {@link HttpEndpointMetrics} sorted by their keys
+         */
+        public Map<String, HttpEndpointMetrics> getEndpointMetrics() {
+            return Collections.unmodifiableMap(new TreeMap<>(endpointMetrics));
+        }
+
         public static URL concatURL(URL hostURL, String contextPath) {
             URL endpointURL;
             try {
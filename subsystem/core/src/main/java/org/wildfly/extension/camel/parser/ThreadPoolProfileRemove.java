@@ -0,0 +1,54 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.parser;
+
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.jboss.as.controller.AbstractRemoveStepHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+final class ThreadPoolProfileRemove extends AbstractRemoveStepHandler {
+
+    private final SubsystemState subsystemState;
+
+    ThreadPoolProfileRemove(SubsystemState subsystemState) {
+        this.subsystemState = subsystemState;
+    }
+
+    @Override
+    protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+        String id = operation.get(ModelDescriptionConstants.OP_ADDR).asObject().get(ModelConstants.THREAD_POOL_PROFILE).asString();
+        final ThreadPoolProfile oldProfile = subsystemState.removeThreadPoolProfile(id);
+        context.completeStep(new OperationContext.RollbackHandler() {
+            @Override
+            public void handleRollback(OperationContext context, ModelNode operation) {
+                if (oldProfile != null) {
+                    subsystemState.putThreadPoolProfile(oldProfile);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.ThreadPoolRejectedPolicy;
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
+import org.jboss.as.controller.operations.validation.StringAllowedValuesValidator;
+import org.jboss.as.controller.registry.AttributeAccess.Flag;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * A Camel {@link ThreadPoolProfile} applied to every Camel context created on the server. The profile with the id
+ * {@code default} overrides the values of the default profile of the contexts, any other profile is registered under
+ * its id so that routes can refer to it.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+final class ThreadPoolProfileResource extends SimpleResourceDefinition {
+
+    static final PathElement THREAD_POOL_PROFILE_PATH = PathElement.pathElement(ModelConstants.THREAD_POOL_PROFILE);
+
+    static final SimpleAttributeDefinition POOL_SIZE = new SimpleAttributeDefinitionBuilder(ModelConstants.POOL_SIZE, ModelType.INT, true)
+            .addFlag(Flag.RESTART_NONE)
+            .setAllowExpression(true)
+            .setValidator(new IntRangeValidator(0, true, true))
+            .build();
+    static final SimpleAttributeDefinition MAX_POOL_SIZE = new SimpleAttributeDefinitionBuilder(ModelConstants.MAX_POOL_SIZE, ModelType.INT, true)
+            .addFlag(Flag.RESTART_NONE)
+            .setAllowExpression(true)
+            .setValidator(new IntRangeValidator(1, true, true))
+            .build();
+    static final SimpleAttributeDefinition KEEP_ALIVE_TIME = new SimpleAttributeDefinitionBuilder(ModelConstants.KEEP_ALIVE_TIME, ModelType.LONG, true)
+            .addFlag(Flag.RESTART_NONE)
+            .setAllowExpression(true)
+            .setValidator(new LongRangeValidator(0, true, true))
+            .build();
+    static final SimpleAttributeDefinition MAX_QUEUE_SIZE = new SimpleAttributeDefinitionBuilder(ModelConstants.MAX_QUEUE_SIZE, ModelType.INT, true)
+            .addFlag(Flag.RESTART_NONE)
+            .setAllowExpression(true)
+            .build();
+    static final SimpleAttributeDefinition ALLOW_CORE_THREAD_TIMEOUT = new SimpleAttributeDefinitionBuilder(ModelConstants.ALLOW_CORE_THREAD_TIMEOUT, ModelType.BOOLEAN, true)
+            .addFlag(Flag.RESTART_NONE)
+            .setAllowExpression(true)
+            .build();
+    static final SimpleAttributeDefinition REJECTED_POLICY = new SimpleAttributeDefinitionBuilder(ModelConstants.REJECTED_POLICY, ModelType.STRING, true)
+            .addFlag(Flag.RESTART_NONE)
+            .setAllowExpression(true)
+            .setValidator(new StringAllowedValuesValidator(rejectedPolicyNames()))
+            .build();
+
+    static final SimpleAttributeDefinition[] ATTRIBUTES = { POOL_SIZE, MAX_POOL_SIZE, KEEP_ALIVE_TIME, MAX_QUEUE_SIZE, ALLOW_CORE_THREAD_TIMEOUT, REJECTED_POLICY };
+
+    private final SubsystemState subsystemState;
+
+    ThreadPoolProfileResource(SubsystemState subsystemState) {
+        super(THREAD_POOL_PROFILE_PATH, CamelResolvers.getResolver(ModelConstants.THREAD_POOL_PROFILE), new ThreadPoolProfileAdd(subsystemState), new ThreadPoolProfileRemove(subsystemState));
+        this.subsystemState = subsystemState;
+    }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        ThreadPoolProfileWrite handler = new ThreadPoolProfileWrite(subsystemState);
+        for (AttributeDefinition attr : ATTRIBUTES) {
+            resourceRegistration.registerReadWriteAttribute(attr, null, handler);
+        }
+    }
+
+    /**
+     * @param context the current operation context
+     * @param id the id of the profile
+     * @param model the model of a thread-pool-profile resource
+     * @return a new {@link ThreadPoolProfile} with the values defined in the given model
+     * @throws OperationFailedException if an expression cannot be resolved
+     */
+    static ThreadPoolProfile createProfile(OperationContext context, String id, ModelNode model) throws OperationFailedException {
+        ThreadPoolProfile profile = new ThreadPoolProfile(id);
+        ModelNode node = POOL_SIZE.resolveModelAttribute(context, model);
+        if (node.isDefined()) {
+            profile.setPoolSize(node.asInt());
+        }
+        node = MAX_POOL_SIZE.resolveModelAttribute(context, model);
+        if (node.isDefined()) {
+            profile.setMaxPoolSize(node.asInt());
+        }
+        node = KEEP_ALIVE_TIME.resolveModelAttribute(context, model);
+        if (node.isDefined()) {
+            profile.setKeepAliveTime(node.asLong());
+            profile.setTimeUnit(TimeUnit.SECONDS);
+        }
+        node = MAX_QUEUE_SIZE.resolveModelAttribute(context, model);
+        if (node.isDefined()) {
+            profile.setMaxQueueSize(node.asInt());
+        }
+        node = ALLOW_CORE_THREAD_TIMEOUT.resolveModelAttribute(context, model);
+        if (node.isDefined()) {
+            profile.setAllowCoreThreadTimeOut(node.asBoolean());
+        }
+        node = REJECTED_POLICY.resolveModelAttribute(context, model);
+        if (node.isDefined()) {
+            profile.setRejectedPolicy(ThreadPoolRejectedPolicy.valueOf(node.asString()));
+        }
+        return profile;
+    }
+
+    private static String[] rejectedPolicyNames() {
+        ThreadPoolRejectedPolicy[] values = ThreadPoolRejectedPolicy.values();
+        String[] result = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].name();
+        }
+        return result;
+    }
+}
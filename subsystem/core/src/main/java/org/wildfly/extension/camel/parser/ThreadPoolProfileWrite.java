@@ -0,0 +1,62 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.parser;
+
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Replaces the {@link org.apache.camel.spi.ThreadPoolProfile} in the {@link SubsystemState}; the Camel contexts
+ * created afterwards use the new values.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+final class ThreadPoolProfileWrite extends AbstractWriteAttributeHandler<Object> {
+
+    private final SubsystemState subsystemState;
+
+    ThreadPoolProfileWrite(SubsystemState subsystemState) {
+        super(ThreadPoolProfileResource.ATTRIBUTES);
+        this.subsystemState = subsystemState;
+    }
+
+    @Override
+    protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Object> handbackHolder) throws OperationFailedException {
+        doUpdate(context, operation, context.readResource(PathAddress.EMPTY_ADDRESS).getModel());
+        return false;
+    }
+
+    @Override
+    protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode valueToRestore, ModelNode valueToRevert, Object handback) throws OperationFailedException {
+        ModelNode model = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+        model.get(attributeName).set(valueToRestore);
+        doUpdate(context, operation, model);
+    }
+
+    private void doUpdate(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+        String id = operation.get(ModelDescriptionConstants.OP_ADDR).asObject().get(ModelConstants.THREAD_POOL_PROFILE).asString();
+        subsystemState.putThreadPoolProfile(ThreadPoolProfileResource.createProfile(context, id, model));
+    }
+}
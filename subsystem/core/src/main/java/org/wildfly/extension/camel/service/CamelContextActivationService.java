@@ -21,15 +21,24 @@ package org.wildfly.extension.camel.service;
 
 import static org.wildfly.extension.camel.CamelLogger.LOGGER;
 
-import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.spring.SpringCamelContext;
+import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.AbstractService;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
 import org.wildfly.camel.proxy.ProxiedAction;
 import org.wildfly.camel.proxy.ProxyUtils;
 import org.wildfly.camel.utils.SpringCamelContextBootstrap;
@@ -37,57 +46,145 @@ import org.wildfly.camel.utils.SpringCamelContextBootstrap;
 /**
  * Activates and starts all {@link SpringCamelContext} instances associated with
  * the application once all dependent services are available
+ *
+ * If parallel activation is enabled, the {@link SpringCamelContextBootstrap}s are activated concurrently on the
+ * server executor and the service starts asynchronously. If an activation fails, the contexts started so far are
+ * stopped again. The contexts are always stopped sequentially in reverse order.
  */
 public final class CamelContextActivationService extends AbstractService<Void> {
 
     private final List<SpringCamelContextBootstrap> bootstraps;
     private final String runtimeName;
+    private final boolean parallel;
+    private final InjectedValue<ExecutorService> injectedExecutor = new InjectedValue<>();
 
     public CamelContextActivationService(List<SpringCamelContextBootstrap> bootstraps, String runtimeName) {
+        this(bootstraps, runtimeName, false);
+    }
+
+    public CamelContextActivationService(List<SpringCamelContextBootstrap> bootstraps, String runtimeName, boolean parallel) {
         this.bootstraps = bootstraps;
         this.runtimeName = runtimeName;
+        this.parallel = parallel;
+    }
+
+    /**
+     * @return the injector of the server executor, which is required if parallel activation is enabled
+     */
+    public Injector<ExecutorService> getExecutorInjector() {
+        return injectedExecutor;
     }
 
     @Override
     public void start(StartContext context) throws StartException {
-        ClassLoader tccl = SecurityActions.getContextClassLoader();
-        for (SpringCamelContextBootstrap bootstrap : bootstraps) {
+        final Deque<CamelContext> started = new ConcurrentLinkedDeque<>();
+        if (!parallel || bootstraps.size() <= 1) {
             try {
-                SecurityActions.setContextClassLoader(bootstrap.getClassLoader());
-                try {
-                    for (CamelContext camelctx : bootstrap.createSpringCamelContexts()) {
-                        try {
-                            ProxyUtils.invokeProxied(new ProxiedAction() {
-                                @Override
-                                public void run() throws Exception {
-                                    camelctx.start();
-                                }
-                            }, bootstrap.getClassLoader());
-                        } catch (Exception ex) {
-                            throw new StartException("Cannot start camel context: " + camelctx.getName(), ex);
-                        }
+                for (SpringCamelContextBootstrap bootstrap : bootstraps) {
+                    activate(bootstrap, started);
+                }
+            } catch (StartException ex) {
+                stopContexts(started);
+                throw ex;
+            }
+            return;
+        }
+
+        final ExecutorService executor = injectedExecutor.getValue();
+        final Queue<SpringCamelContextBootstrap> pending = new ConcurrentLinkedQueue<>(bootstraps);
+        final Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+        /* At most one worker per processor so that a large deployment does not flood the shared server executor */
+        final int workers = Math.min(bootstraps.size(), Runtime.getRuntime().availableProcessors());
+        final AtomicInteger running = new AtomicInteger(workers);
+        final Runnable worker = () -> {
+            try {
+                SpringCamelContextBootstrap bootstrap;
+                while (failures.isEmpty() && (bootstrap = pending.poll()) != null) {
+                    try {
+                        activate(bootstrap, started);
+                    } catch (StartException | RuntimeException ex) {
+                        failures.add(ex);
                     }
-                } catch (Exception e) {
-                    throw new StartException("Cannot create camel context: " + runtimeName, e);
                 }
             } finally {
-                SecurityActions.setContextClassLoader(tccl);
+                if (running.decrementAndGet() == 0) {
+                    complete(context, started, failures);
+                }
+            }
+        };
+        context.asynchronous();
+        for (int i = 0; i < workers; i++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException ex) {
+                failures.add(ex);
+                if (running.decrementAndGet() == 0) {
+                    complete(context, started, failures);
+                }
             }
         }
     }
 
-    @Override
-    public void stop(StopContext context) {
-        Collections.reverse(bootstraps);
-        for (SpringCamelContextBootstrap bootstrap: bootstraps) {
-            List<SpringCamelContext> camelctxList = bootstrap.getSpringCamelContexts();
-            for (CamelContext camelctx : camelctxList) {
-                try {
-                    camelctx.stop();
-                } catch (Exception ex) {
-                    LOGGER.warn("Cannot stop camel context: " + camelctx.getName(), ex);
+    private void complete(StartContext context, Deque<CamelContext> started, Queue<Exception> failures) {
+        final Exception failure = failures.poll();
+        if (failure == null) {
+            context.complete();
+            return;
+        }
+        stopContexts(started);
+        final StartException result = failure instanceof StartException ? (StartException) failure
+                : new StartException("Cannot create camel context: " + runtimeName, failure);
+        for (Exception other : failures) {
+            result.addSuppressed(other);
+        }
+        context.failed(result);
+    }
+
+    /**
+     * @param started the contexts activated so far, the most recent first
+     */
+    private void activate(SpringCamelContextBootstrap bootstrap, Deque<CamelContext> started) throws StartException {
+        ClassLoader tccl = SecurityActions.getContextClassLoader();
+        try {
+            SecurityActions.setContextClassLoader(bootstrap.getClassLoader());
+            try {
+                for (CamelContext camelctx : bootstrap.createSpringCamelContexts()) {
+                    // A context that fails to start may have started some of its services
+                    started.addFirst(camelctx);
+                    try {
+                        ProxyUtils.invokeProxied(new ProxiedAction() {
+                            @Override
+                            public void run() throws Exception {
+                                camelctx.start();
+                            }
+                        }, bootstrap.getClassLoader());
+                    } catch (Exception ex) {
+                        throw new StartException("Cannot start camel context: " + camelctx.getName(), ex);
+                    }
                 }
+            } catch (Exception e) {
+                throw new StartException("Cannot create camel context: " + runtimeName, e);
             }
+        } finally {
+            SecurityActions.setContextClassLoader(tccl);
+        }
+    }
+
+    private void stopContexts(Iterable<? extends CamelContext> contexts) {
+        for (CamelContext camelctx : contexts) {
+            try {
+                camelctx.stop();
+            } catch (Exception ex) {
+                LOGGER.warn("Cannot stop camel context: " + camelctx.getName(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void stop(StopContext context) {
+        for (ListIterator<SpringCamelContextBootstrap> it = bootstraps.listIterator(bootstraps.size()); it.hasPrevious();) {
+            SpringCamelContextBootstrap bootstrap = it.previous();
+            stopContexts(bootstrap.getSpringCamelContexts());
         }
     }
 }
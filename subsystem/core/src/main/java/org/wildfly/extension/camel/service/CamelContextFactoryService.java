@@ -21,18 +21,15 @@
 
 package org.wildfly.extension.camel.service;
 
-import org.jboss.modules.ModuleClassLoader;
 import org.jboss.msc.service.AbstractService;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
-import org.wildfly.camel.utils.IllegalArgumentAssertion;
 import org.wildfly.extension.camel.CamelConstants;
 import org.wildfly.extension.camel.CamelContextFactory;
 import org.wildfly.extension.camel.WildFlyCamelContext;
-import org.wildfly.extension.camel.handler.ModuleClassLoaderAssociationHandler;
 
 /**
  * The {@link CamelContextFactory} service
@@ -73,13 +70,7 @@ public class CamelContextFactoryService extends AbstractService<CamelContextFact
 
         @Override
         public WildFlyCamelContext createCamelContext(ClassLoader classLoader) throws Exception {
-            IllegalArgumentAssertion.assertTrue(classLoader instanceof ModuleClassLoader, "ModuleClassLoader required: " + classLoader);
-            ModuleClassLoaderAssociationHandler.associate((ModuleClassLoader) classLoader);
-            try {
-                return new WildFlyCamelContext();
-            } finally {
-                ModuleClassLoaderAssociationHandler.disassociate();
-            }
+            return createCamelContext(classLoader, WildFlyCamelContext::new);
         }
     }
 }
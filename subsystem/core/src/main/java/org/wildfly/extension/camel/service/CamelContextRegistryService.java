@@ -22,13 +22,15 @@ package org.wildfly.extension.camel.service;
 
 import static org.wildfly.extension.camel.CamelLogger.LOGGER;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EventObject;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.impl.CamelContextTrackerRegistry;
@@ -37,6 +39,7 @@ import org.apache.camel.management.event.CamelContextStoppedEvent;
 import org.apache.camel.spi.CamelContextTracker;
 import org.apache.camel.spi.ManagementStrategy;
 import org.apache.camel.support.EventNotifierSupport;
+import org.jboss.as.server.Services;
 import org.jboss.modules.ModuleClassLoader;
 import org.jboss.modules.ModuleIdentifier;
 import org.jboss.msc.service.AbstractService;
@@ -51,7 +54,6 @@ import org.wildfly.camel.utils.IllegalStateAssertion;
 import org.wildfly.camel.utils.SpringCamelContextFactory;
 import org.wildfly.extension.camel.CamelConstants;
 import org.wildfly.extension.camel.CamelContextRegistry;
-import org.wildfly.extension.camel.CamelSubsytemExtension;
 import org.wildfly.extension.camel.ContextCreateHandler;
 import org.wildfly.extension.camel.ContextCreateHandlerRegistry;
 import org.wildfly.extension.camel.deployment.CamelDeploymentSettings;
@@ -75,13 +77,16 @@ public class CamelContextRegistryService extends AbstractService<MutableCamelCon
 
     private final SubsystemState subsystemState;
     private final InjectedValue<ContextCreateHandlerRegistry> injectedHandlerRegistry = new InjectedValue<>();
+    private final InjectedValue<ExecutorService> injectedExecutor = new InjectedValue<>();
 
     private MutableCamelContextRegistry contextRegistry;
+    private CamelSubsystemExtensionDispatcher extensionDispatcher;
 
     public static ServiceController<MutableCamelContextRegistry> addService(ServiceTarget serviceTarget, SubsystemState subsystemState) {
         CamelContextRegistryService service = new CamelContextRegistryService(subsystemState);
         ServiceBuilder<MutableCamelContextRegistry> builder = serviceTarget.addService(CamelConstants.CAMEL_CONTEXT_REGISTRY_SERVICE_NAME, service);
         builder.addDependency(CamelConstants.CONTEXT_CREATE_HANDLER_REGISTRY_SERVICE_NAME, ContextCreateHandlerRegistry.class, service.injectedHandlerRegistry);
+        Services.addServerExecutorDependency(builder, service.injectedExecutor);
         return builder.install();
     }
 
@@ -100,7 +105,8 @@ public class CamelContextRegistryService extends AbstractService<MutableCamelCon
     @Override
     public void start(StartContext startContext) throws StartException {
         ContextCreateHandlerRegistry handlerRegistry = injectedHandlerRegistry.getValue();
-        contextRegistry = new CamelContextRegistryImpl(handlerRegistry, startContext.getChildTarget());
+        extensionDispatcher = new CamelSubsystemExtensionDispatcher(subsystemState, injectedExecutor.getValue());
+        contextRegistry = new CamelContextRegistryImpl(handlerRegistry, startContext.getChildTarget(), extensionDispatcher);
 
         for (final String name : subsystemState.getContextDefinitionNames()) {
             createCamelContext(name, subsystemState.getContextDefinition(name));
@@ -123,6 +129,15 @@ public class CamelContextRegistryService extends AbstractService<MutableCamelCon
         if (contextRegistry != null) {
             CamelContextTrackerRegistry.INSTANCE.removeTracker((CamelContextTracker) contextRegistry);
         }
+
+        if (extensionDispatcher != null) {
+            final CamelSubsystemExtensionDispatcher dispatcher = extensionDispatcher;
+            context.asynchronous();
+            dispatcher.shutdown(() -> {
+                LOGGER.debug("Camel subsystem extension timings: {}", dispatcher.getTimings());
+                context.complete();
+            });
+        }
     }
 
     @Override
@@ -153,43 +168,34 @@ public class CamelContextRegistryService extends AbstractService<MutableCamelCon
 
     final class CamelContextRegistryImpl extends CamelContextTracker implements MutableCamelContextRegistry {
 
-        private final Set<CamelContext> contexts = new HashSet<>();
+        /** Serializes the writers; the readers only access the volatile {@link #snapshot} */
+        private final Object writeLock = new Object();
+        private volatile Snapshot snapshot = Snapshot.EMPTY;
         private final ContextCreateHandlerRegistry handlerRegistry;
         private final ServiceTarget serviceTarget;
+        private final CamelSubsystemExtensionDispatcher extensionDispatcher;
 
-        CamelContextRegistryImpl(ContextCreateHandlerRegistry handlerRegistry, ServiceTarget serviceTarget) {
+        CamelContextRegistryImpl(ContextCreateHandlerRegistry handlerRegistry, ServiceTarget serviceTarget,
+                CamelSubsystemExtensionDispatcher extensionDispatcher) {
             this.handlerRegistry = handlerRegistry;
             this.serviceTarget = serviceTarget;
+            this.extensionDispatcher = extensionDispatcher;
             CamelContextTrackerRegistry.INSTANCE.addTracker(this);
         }
 
         @Override
         public List<String> getCamelContextNames() {
-            List<String> result = contexts.stream()
-                    .map(ctx -> ctx.getName())
-                    .collect(Collectors.toList());
-            return result;
+            return snapshot.names;
         }
 
         @Override
         public CamelContext getCamelContext(String name) {
-            CamelContext result = null;
-            synchronized (contexts) {
-                for (CamelContext camelctx : contexts) {
-                    if (camelctx.getName().equals(name)) {
-                        result = camelctx;
-                        break;
-                    }
-                }
-            }
-            return result;
+            return snapshot.byName.get(name);
         }
 
         @Override
         public Set<CamelContext> getCamelContexts() {
-            synchronized (contexts) {
-                return Collections.unmodifiableSet(contexts);
-            }
+            return snapshot.contexts;
         }
 
         @Override
@@ -208,6 +214,9 @@ public class CamelContextRegistryService extends AbstractService<MutableCamelCon
 
             if (enableIntegration) {
 
+                // Associate the module class loader found above so that the handlers need not look it up again
+                camelctx.setApplicationContextClassLoader(moduleClassLoader);
+
                 // Call the default {@link ContextCreateHandler}s
                 for (ContextCreateHandler handler : handlerRegistry.getContextCreateHandlers(null)) {
                     handler.setup(camelctx);
@@ -253,28 +262,48 @@ public class CamelContextRegistryService extends AbstractService<MutableCamelCon
 
         @Override
         public void addCamelContext(CamelContext camelctx) {
-            synchronized (contexts) {
+            synchronized (writeLock) {
+                final Set<CamelContext> contexts = new LinkedHashSet<>(snapshot.contexts);
                 contexts.add(camelctx);
-                subsystemState.processExtensions(new Consumer<CamelSubsytemExtension>() {
-                    @Override
-                    public void accept(CamelSubsytemExtension plugin) {
-                        plugin.addCamelContext(serviceTarget, camelctx);
-                    }
-                });
+                snapshot = new Snapshot(contexts);
             }
+            extensionDispatcher.addCamelContext(serviceTarget, camelctx);
         }
 
         @Override
         public void removeCamelContext(CamelContext camelctx) {
-            synchronized (contexts) {
-                subsystemState.processExtensions(new Consumer<CamelSubsytemExtension>() {
-                    @Override
-                    public void accept(CamelSubsytemExtension plugin) {
-                        plugin.removeCamelContext(camelctx);
-                    }
-                });
+            extensionDispatcher.removeCamelContext(camelctx);
+            synchronized (writeLock) {
+                final Set<CamelContext> contexts = new LinkedHashSet<>(snapshot.contexts);
                 contexts.remove(camelctx);
+                snapshot = new Snapshot(contexts);
+            }
+        }
+    }
+
+    /**
+     * An immutable state of {@link CamelContextRegistryImpl} with the contexts indexed by name. It is replaced as a
+     * whole on every change so that the readers see consistent results without locking.
+     */
+    static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Collections.emptySet());
+
+        private final Set<CamelContext> contexts;
+        private final List<String> names;
+        /** If several contexts have the same name, the one registered first wins */
+        private final Map<String, CamelContext> byName;
+
+        Snapshot(Set<CamelContext> contexts) {
+            final List<String> names = new ArrayList<>(contexts.size());
+            final Map<String, CamelContext> byName = new HashMap<>();
+            for (CamelContext camelctx : contexts) {
+                names.add(camelctx.getName());
+                byName.putIfAbsent(camelctx.getName(), camelctx);
             }
+            this.contexts = Collections.unmodifiableSet(contexts);
+            this.names = Collections.unmodifiableList(names);
+            this.byName = byName;
         }
     }
 }
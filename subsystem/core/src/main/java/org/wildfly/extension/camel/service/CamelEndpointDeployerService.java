@@ -24,14 +24,22 @@ import java.lang.reflect.Field;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.servlet.Servlet;
@@ -43,6 +51,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ee.component.EEModuleConfiguration;
+import org.jboss.as.server.Services;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceBuilder;
@@ -97,6 +106,14 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
 
     private static final String MATCH_ALL_PREFIX = "/*";
 
+    /**
+     * A system property to enable mounting the routing handlers passed to {@link #deploy(URI, HttpHandler)} directly
+     * into the Undertow handler chain instead of dispatching to them through {@link EndpointServlet}. Note that the
+     * servlet request and response objects are still created by the initial handler of the deployment because the
+     * security handlers depend on them; only the servlet dispatch and the exchange thread local are skipped.
+     */
+    public static final String NATIVE_HANDLER_PROPERTY = "wildfly.camel.undertow.native.handler";
+
     /** The name for the {@link CamelEndpointDeployerService} */
     private static final String SERVICE_NAME = "EndpointDeployer";
 
@@ -120,186 +137,304 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
     };
 
     /**
-     * This method can simplified substantially, once https://github.com/undertow-io/undertow/pull/642 reaches us.
-     * Currently, the method is just an adjusted copy of {@link DeploymentInfo#clone()}.
+     * The parts of the main {@link DeploymentInfo} that do not depend on the endpoint {@link URI}, computed once so
+     * that they can be shared by any number of endpoint deployments.
      *
-     * @param src the {@link DeploymentInfo} to clone and adapt
-     * @param uri the {@link URI} of the CXF endpoint
-     * @param servletInfo of the servlet that will serve the endpoint
-     * @return a new adapted {@link DeploymentInfo}
+     * {@link #adapt(URI, ServletInfo, HandlerWrapper)} can simplified substantially, once
+     * https://github.com/undertow-io/undertow/pull/642 reaches us. Currently, it is just an adjusted copy of
+     * {@link DeploymentInfo#clone()}.
      */
-    static DeploymentInfo adaptDeploymentInfo(DeploymentInfo src, URI uri, ServletInfo servletInfo) {
-        final String contextPath = uri.getPath();
-        final String deploymentName = src.getDeploymentName() + ":" + uri.getPath();
-
-        final DeploymentInfo info = new DeploymentInfo()
-                .setClassLoader(src.getClassLoader())
-                .setContextPath(contextPath)
-                .setResourceManager(src.getResourceManager())
-                .setMajorVersion(src.getMajorVersion())
-                .setMinorVersion(src.getMinorVersion())
-                .setDeploymentName(deploymentName)
-                .setClassIntrospecter(src.getClassIntrospecter());
-
-        info.addServlet(servletInfo);
-
-        for (Map.Entry<String, FilterInfo> e : src.getFilters().entrySet()) {
-            info.addFilter(e.getValue().clone());
-        }
-        info.setDisplayName(src.getDisplayName());
-        for (FilterMappingInfo fmi : src.getFilterMappings()) {
-            switch (fmi.getMappingType()) {
-            case URL:
-                info.addFilterUrlMapping(fmi.getFilterName(), fmi.getMapping(), fmi.getDispatcher());
-                break;
-            case SERVLET:
-                info.addFilterServletNameMapping(fmi.getFilterName(), fmi.getMapping(), fmi.getDispatcher());
-                break;
-            default:
-                throw new IllegalStateException(
-                        "Unexpected " + io.undertow.servlet.api.FilterMappingInfo.MappingType.class.getName() + " "
-                                + fmi.getMappingType());
-            }
-        }
-        final List<ListenerInfo> listeners = src.getListeners();
-        final List<String> approvedListeners = Arrays.asList(
-                "org.wildfly.extension.undertow.deployment.JspInitializationListener",
-                "org.jboss.weld.module.web.servlet.WeldInitialListener",
-                "org.jboss.weld.module.web.servlet.WeldTerminalListener",
-                "org.wildfly.microprofile.opentracing.smallrye.TracerInitializer"
-                );
-        final String infoServiceListenerClassNamePrefix = UndertowDeploymentInfoService.class.getName() + "$";
-        for (ListenerInfo listenerInfo : listeners) {
-            CamelLogger.LOGGER.debug("Copying ListenerInfo {}", listenerInfo);
-            if (listenerInfo.getListenerClass().getName().startsWith(infoServiceListenerClassNamePrefix)) {
-                /* ignore */
-            } else {
-                assert approvedListeners.stream().anyMatch(cl -> cl.equals(listenerInfo.getListenerClass().getName())) : "Unexpected "+ ListenerInfo.class.getName() + ": "+ listenerInfo + "; expected any of ["+ approvedListeners.stream().collect(Collectors.joining(", ")) +"]";
-                info.addListener(listenerInfo);
+    static class DeploymentInfoTemplate {
+        private final DeploymentInfo src;
+        private final List<ListenerInfo> listeners;
+        /** The servlet context attributes of the main deployment except for the {@link WebSocketDeploymentInfo} */
+        private final Map<String, Object> servletContextAttributes;
+        /** The security constraints of the main deployment with their URL patterns parsed */
+        private final List<SecurityConstraintTemplate> securityConstraints;
+
+        DeploymentInfoTemplate(DeploymentInfo src) {
+            this.src = src;
+            final List<ListenerInfo> srcListeners = src.getListeners();
+            final List<String> approvedListeners = Arrays.asList(
+                    "org.wildfly.extension.undertow.deployment.JspInitializationListener",
+                    "org.jboss.weld.module.web.servlet.WeldInitialListener",
+                    "org.jboss.weld.module.web.servlet.WeldTerminalListener",
+                    "org.wildfly.microprofile.opentracing.smallrye.TracerInitializer"
+                    );
+            final String infoServiceListenerClassNamePrefix = UndertowDeploymentInfoService.class.getName() + "$";
+            final List<ListenerInfo> copiedListeners = new ArrayList<>(srcListeners.size());
+            for (ListenerInfo listenerInfo : srcListeners) {
+                CamelLogger.LOGGER.debug("Copying ListenerInfo {}", listenerInfo);
+                if (listenerInfo.getListenerClass().getName().startsWith(infoServiceListenerClassNamePrefix)) {
+                    /* ignore */
+                } else {
+                    assert approvedListeners.stream().anyMatch(cl -> cl.equals(listenerInfo.getListenerClass().getName())) : "Unexpected "+ ListenerInfo.class.getName() + ": "+ listenerInfo + "; expected any of ["+ approvedListeners.stream().collect(Collectors.joining(", ")) +"]";
+                    copiedListeners.add(listenerInfo);
+                }
             }
+            this.listeners = Collections.unmodifiableList(copiedListeners);
+
+            final Map<String, Object> attributes = new LinkedHashMap<>();
+            for (Entry<String, Object> en : src.getServletContextAttributes().entrySet()) {
+                if (WebSocketDeploymentInfo.ATTRIBUTE_NAME.equals(en.getKey())) {
+                    final WebSocketDeploymentInfo wsdi = (WebSocketDeploymentInfo) en.getValue();
+                    try {
+                        final Field containerReadyListenersField = wsdi.getClass().getDeclaredField("containerReadyListeners");
+                        containerReadyListenersField.setAccessible(true);
+                        @SuppressWarnings("unchecked")
+                        final List<ContainerReadyListener> containerReadyListeners = (List<ContainerReadyListener>) containerReadyListenersField.get(wsdi);
+                        assert containerReadyListeners.stream().anyMatch(l -> l.getClass().getName().startsWith(infoServiceListenerClassNamePrefix)) : infoServiceListenerClassNamePrefix + "* not found in "+ WebSocketDeploymentInfo.class.getSimpleName() + ".containerReadyListeners";
+                        assert containerReadyListeners.size() == 1 : WebSocketDeploymentInfo.class.getSimpleName() + ".containerReadyListeners.size() expected 1, actual "+ srcListeners.size();
+                    } catch (NoSuchFieldException | SecurityException | IllegalAccessException e1) {
+                        throw new RuntimeException(e1);
+                    }
+                } else {
+                    attributes.put(en.getKey(), en.getValue());
+                }
+            }
+            this.servletContextAttributes = Collections.unmodifiableMap(attributes);
+
+            final List<SecurityConstraintTemplate> constraints = new ArrayList<>(src.getSecurityConstraints().size());
+            for (SecurityConstraint securityConstraint : src.getSecurityConstraints()) {
+                constraints.add(new SecurityConstraintTemplate(securityConstraint));
+            }
+            this.securityConstraints = Collections.unmodifiableList(constraints);
         }
 
-        info.addServletContainerInitalizers(src.getServletContainerInitializers());
-        for (ThreadSetupHandler a : src.getThreadSetupActions()) {
-            info.addThreadSetupAction(a);
-        }
-        for (Entry<String, String> en : src.getInitParameters().entrySet()) {
-            info.addInitParameter(en.getKey(), en.getValue());
-        }
-        for (Entry<String, Object> en : src.getServletContextAttributes().entrySet()) {
-            if (WebSocketDeploymentInfo.ATTRIBUTE_NAME.equals(en.getKey())) {
-                final WebSocketDeploymentInfo srcWsdi = (WebSocketDeploymentInfo) en.getValue();
-
-                /* Simplify start
-                 * Once https://github.com/undertow-io/undertow/pull/672 reaches us
-                 * the follwing code can be simplified using the newly added WebSocketDeploymentInfo methods clone()
-                 * and [get|add]Listeners() */
-                final WebSocketDeploymentInfo targetWsdi = new WebSocketDeploymentInfo()
-                        .setWorker(srcWsdi.getWorker())
-                        .setBuffers(srcWsdi.getBuffers())
-                        .setDispatchToWorkerThread(srcWsdi.isDispatchToWorkerThread())
-                        .setReconnectHandler(srcWsdi.getReconnectHandler())
-                        ;
-                targetWsdi.setClientBindAddress(srcWsdi.getClientBindAddress());
-                srcWsdi.getAnnotatedEndpoints().stream().forEach(e -> targetWsdi.addEndpoint(e));
-                srcWsdi.getProgramaticEndpoints().stream().forEach(e -> targetWsdi.addEndpoint(e));
-                srcWsdi.getExtensions().stream().forEach(e -> targetWsdi.addExtension(e));
-                try {
-                    final Field containerReadyListenersField = srcWsdi.getClass().getDeclaredField("containerReadyListeners");
-                    containerReadyListenersField.setAccessible(true);
-                    @SuppressWarnings("unchecked")
-                    final List<ContainerReadyListener> containerReadyListeners = (List<ContainerReadyListener>) containerReadyListenersField.get(srcWsdi);
-                    assert containerReadyListeners.stream().anyMatch(l -> l.getClass().getName().startsWith(infoServiceListenerClassNamePrefix)) : infoServiceListenerClassNamePrefix + "* not found in "+ WebSocketDeploymentInfo.class.getSimpleName() + ".containerReadyListeners";
-                    assert containerReadyListeners.size() == 1 : WebSocketDeploymentInfo.class.getSimpleName() + ".containerReadyListeners.size() expected 1, actual "+ listeners.size();
-                } catch (NoSuchFieldException | SecurityException | IllegalAccessException e1) {
-                    throw new RuntimeException(e1);
+        DeploymentInfo getSource() {
+            return src;
+        }
+
+        /**
+         * @param uri the {@link URI} of the CXF endpoint
+         * @param servletInfo of the servlet that will serve the endpoint
+         * @param dispatchingHandlerWrapper if not {@code null}, the innermost {@link HandlerWrapper} wrapping the servlet
+         *        dispatching handler
+         * @return a new adapted {@link DeploymentInfo}
+         */
+        DeploymentInfo adapt(URI uri, ServletInfo servletInfo, HandlerWrapper dispatchingHandlerWrapper) {
+            final String contextPath = uri.getPath();
+            final String deploymentName = src.getDeploymentName() + ":" + uri.getPath();
+
+            final DeploymentInfo info = new DeploymentInfo()
+                    .setClassLoader(src.getClassLoader())
+                    .setContextPath(contextPath)
+                    .setResourceManager(src.getResourceManager())
+                    .setMajorVersion(src.getMajorVersion())
+                    .setMinorVersion(src.getMinorVersion())
+                    .setDeploymentName(deploymentName)
+                    .setClassIntrospecter(src.getClassIntrospecter());
+
+            info.addServlet(servletInfo);
+
+            for (Map.Entry<String, FilterInfo> e : src.getFilters().entrySet()) {
+                info.addFilter(e.getValue().clone());
+            }
+            info.setDisplayName(src.getDisplayName());
+            for (FilterMappingInfo fmi : src.getFilterMappings()) {
+                switch (fmi.getMappingType()) {
+                case URL:
+                    info.addFilterUrlMapping(fmi.getFilterName(), fmi.getMapping(), fmi.getDispatcher());
+                    break;
+                case SERVLET:
+                    info.addFilterServletNameMapping(fmi.getFilterName(), fmi.getMapping(), fmi.getDispatcher());
+                    break;
+                default:
+                    throw new IllegalStateException(
+                            "Unexpected " + io.undertow.servlet.api.FilterMappingInfo.MappingType.class.getName() + " "
+                                    + fmi.getMappingType());
                 }
-                /* Simplify end */
-            } else {
+            }
+            for (ListenerInfo listenerInfo : listeners) {
+                info.addListener(listenerInfo);
+            }
+
+            info.addServletContainerInitalizers(src.getServletContainerInitializers());
+            for (ThreadSetupHandler a : src.getThreadSetupActions()) {
+                info.addThreadSetupAction(a);
+            }
+            for (Entry<String, String> en : src.getInitParameters().entrySet()) {
+                info.addInitParameter(en.getKey(), en.getValue());
+            }
+            for (Entry<String, Object> en : servletContextAttributes.entrySet()) {
                 info.addServletContextAttribute(en.getKey(), en.getValue());
             }
+            info.addWelcomePages(src.getWelcomePages());
+            info.addErrorPages(src.getErrorPages());
+            info.addMimeMappings(src.getMimeMappings());
+            info.setExecutor(src.getExecutor());
+            info.setAsyncExecutor(src.getAsyncExecutor());
+            info.setTempDir(src.getTempDir());
+            info.setJspConfigDescriptor(src.getJspConfigDescriptor());
+            info.setDefaultServletConfig(src.getDefaultServletConfig());
+            for (Entry<String, String> en : src.getLocaleCharsetMapping().entrySet()) {
+                info.addLocaleCharsetMapping(en.getKey(), en.getValue());
+            }
+            info.setSessionManagerFactory(src.getSessionManagerFactory());
+            final LoginConfig loginConfig = src.getLoginConfig();
+            if (loginConfig != null) {
+                info.setLoginConfig(loginConfig.clone());
+            }
+            info.setIdentityManager(src.getIdentityManager());
+            info.setConfidentialPortManager(src.getConfidentialPortManager());
+            info.setDefaultEncoding(src.getDefaultEncoding());
+            info.setUrlEncoding(src.getUrlEncoding());
+            info.addSecurityConstraints(filterConstraints(uri));
+            for (HandlerWrapper w : src.getOuterHandlerChainWrappers()) {
+                info.addOuterHandlerChainWrapper(w);
+            }
+            if (dispatchingHandlerWrapper != null) {
+                /* Must be added first so that the inner wrappers of the main deployment stay in front of it */
+                info.addInnerHandlerChainWrapper(dispatchingHandlerWrapper);
+            }
+            for (HandlerWrapper w : src.getInnerHandlerChainWrappers()) {
+                info.addInnerHandlerChainWrapper(w);
+            }
+            info.setInitialSecurityWrapper(src.getInitialSecurityWrapper());
+            for (HandlerWrapper w : src.getSecurityWrappers()) {
+                info.addSecurityWrapper(w);
+            }
+            for (HandlerWrapper w : src.getInitialHandlerChainWrappers()) {
+                info.addInitialHandlerChainWrapper(w);
+            }
+            info.addSecurityRoles(src.getSecurityRoles());
+            info.addNotificationReceivers(src.getNotificationReceivers());
+            info.setAllowNonStandardWrappers(src.isAllowNonStandardWrappers());
+            info.setDefaultSessionTimeout(src.getDefaultSessionTimeout());
+            info.setServletContextAttributeBackingMap(src.getServletContextAttributeBackingMap());
+            info.setServletSessionConfig(src.getServletSessionConfig());
+            info.setHostName(src.getHostName());
+            info.setDenyUncoveredHttpMethods(src.isDenyUncoveredHttpMethods());
+            info.setServletStackTraces(src.getServletStackTraces());
+            info.setInvalidateSessionOnLogout(src.isInvalidateSessionOnLogout());
+            info.setDefaultCookieVersion(src.getDefaultCookieVersion());
+            info.setSessionPersistenceManager(src.getSessionPersistenceManager());
+            for (Map.Entry<String, Set<String>> e : src.getPrincipalVersusRolesMap().entrySet()) {
+                info.addPrincipalVsRoleMappings(e.getKey(), e.getValue());
+            }
+            info.setIgnoreFlush(src.isIgnoreFlush());
+            info.setAuthorizationManager(src.getAuthorizationManager());
+            for (Entry<String, AuthenticationMechanismFactory> e : src.getAuthenticationMechanisms().entrySet()) {
+                info.addAuthenticationMechanism(e.getKey(), e.getValue());
+            }
+            info.setJaspiAuthenticationMechanism(src.getJaspiAuthenticationMechanism());
+            info.setSecurityContextFactory(src.getSecurityContextFactory());
+            info.setServerName(src.getServerName());
+            info.setMetricsCollector(src.getMetricsCollector());
+            info.setSessionConfigWrapper(src.getSessionConfigWrapper());
+            info.setEagerFilterInit(src.isEagerFilterInit());
+            info.setDisableCachingForSecuredPages(src.isDisableCachingForSecuredPages());
+            info.setExceptionHandler(src.getExceptionHandler());
+            info.setEscapeErrorMessage(src.isEscapeErrorMessage());
+            for (SessionListener e : src.getSessionListeners()) {
+                info.addSessionListener(e);
+            }
+            for (LifecycleInterceptor e : src.getLifecycleInterceptors()) {
+                info.addLifecycleInterceptor(e);
+            }
+            info.setAuthenticationMode(src.getAuthenticationMode());
+            info.setDefaultMultipartConfig(src.getDefaultMultipartConfig());
+            info.setContentTypeCacheSize(src.getContentTypeCacheSize());
+            info.setSessionIdGenerator(src.getSessionIdGenerator());
+            info.setSendCustomReasonPhraseOnError(src.isSendCustomReasonPhraseOnError());
+            info.setChangeSessionIdOnLogin(src.isChangeSessionIdOnLogin());
+            info.setCrawlerSessionManagerConfig(src.getCrawlerSessionManagerConfig());
+            info.setSecurityDisabled(src.isSecurityDisabled());
+            info.setUseCachedAuthenticationMechanism(src.isUseCachedAuthenticationMechanism());
+            info.setCheckOtherSessionManagers(src.isCheckOtherSessionManagers());
+
+            return info;
+        }
+
+        List<SecurityConstraint> filterConstraints(URI uri) {
+            final List<SecurityConstraint> result = new ArrayList<>();
+            final String uriPath = uri.getPath();
+            final String endpointUriPrefix = "//" + uriPath;
+            final String mainContextPath = src.getContextPath();
+            final boolean isRelativeUri = uriPath.startsWith(mainContextPath);
+            final String path = isRelativeUri ? uriPath.substring(mainContextPath.length()) : endpointUriPrefix;
+            for (SecurityConstraintTemplate mainSecurityConstraint : securityConstraints) {
+                final SecurityConstraint endpointSecurityConstraint = new SecurityConstraint();
+                for (WebResourceCollectionTemplate mainResourceCollection : mainSecurityConstraint.webResourceCollections) {
+                    final WebResourceCollection endpointResourceCollection = new WebResourceCollection();
+                    if (mainResourceCollection.matchAllEndpoints) {
+                        endpointResourceCollection.addUrlPattern(MATCH_ALL_PREFIX);
+                    }
+                    for (UrlPattern pattern : mainResourceCollection.urlPatterns) {
+                        final String relativePattern = pattern.relativize(path);
+                        if (relativePattern != null) {
+                            endpointResourceCollection.addUrlPattern(relativePattern);
+                        }
+                    }
+                    if (!endpointResourceCollection.getUrlPatterns().isEmpty()) {
+                        final WebResourceCollection mainCollection = mainResourceCollection.source;
+                        endpointResourceCollection.addHttpMethods(mainCollection.getHttpMethods());
+                        endpointResourceCollection.addHttpMethodOmissions(mainCollection.getHttpMethodOmissions());
+                        endpointSecurityConstraint.addWebResourceCollection(endpointResourceCollection);
+                    }
+                }
+
+                if (!endpointSecurityConstraint.getWebResourceCollections().isEmpty()) {
+                    final SecurityConstraint mainConstraint = mainSecurityConstraint.source;
+                    endpointSecurityConstraint.addRolesAllowed(mainConstraint.getRolesAllowed());
+                    endpointSecurityConstraint.setEmptyRoleSemantic(mainConstraint.getEmptyRoleSemantic());
+                    endpointSecurityConstraint.setTransportGuaranteeType(
+                            transportGuaranteeType(uri, mainConstraint.getTransportGuaranteeType()));
+                    result.add(endpointSecurityConstraint);
+                }
+
+            }
+            if (result.isEmpty() && uri.getScheme().equals("https")) {
+                final WebResourceCollection webResourceCollection = new WebResourceCollection();
+                webResourceCollection.addUrlPattern("/*");
+
+                final SecurityConstraint endpointSecurityConstraint = new SecurityConstraint();
+                endpointSecurityConstraint.addWebResourceCollection(webResourceCollection);
+                endpointSecurityConstraint.setTransportGuaranteeType(TransportGuaranteeType.CONFIDENTIAL);
+                endpointSecurityConstraint.setEmptyRoleSemantic(EmptyRoleSemantic.PERMIT);
+                result.add(endpointSecurityConstraint);
+            }
+
+            return result;
+        }
+    }
+
+    /** A {@link SecurityConstraint} of the main deployment with the URL patterns of its collections parsed */
+    static class SecurityConstraintTemplate {
+        private final SecurityConstraint source;
+        private final List<WebResourceCollectionTemplate> webResourceCollections;
+
+        SecurityConstraintTemplate(SecurityConstraint source) {
+            this.source = source;
+            final List<WebResourceCollectionTemplate> collections = new ArrayList<>(source.getWebResourceCollections().size());
+            for (WebResourceCollection webResourceCollection : source.getWebResourceCollections()) {
+                collections.add(new WebResourceCollectionTemplate(webResourceCollection));
+            }
+            this.webResourceCollections = Collections.unmodifiableList(collections);
+        }
+    }
+
+    /** A {@link WebResourceCollection} of the main deployment with its URL patterns parsed */
+    static class WebResourceCollectionTemplate {
+        private final WebResourceCollection source;
+        /** {@code true} if the collection contains {@link CamelEndpointDeployerService#MATCH_ALL_ENDPOINT_URI_PREFIX} */
+        private final boolean matchAllEndpoints;
+        private final List<UrlPattern> urlPatterns;
+
+        WebResourceCollectionTemplate(WebResourceCollection source) {
+            this.source = source;
+            boolean matchAll = false;
+            final List<UrlPattern> patterns = new ArrayList<>(source.getUrlPatterns().size());
+            for (String mainUrlPattern : source.getUrlPatterns()) {
+                if (MATCH_ALL_ENDPOINT_URI_PREFIX.equals(mainUrlPattern)) {
+                    matchAll = true;
+                } else {
+                    patterns.add(new UrlPattern(mainUrlPattern));
+                }
+            }
+            this.matchAllEndpoints = matchAll;
+            this.urlPatterns = Collections.unmodifiableList(patterns);
         }
-        info.addWelcomePages(src.getWelcomePages());
-        info.addErrorPages(src.getErrorPages());
-        info.addMimeMappings(src.getMimeMappings());
-        info.setExecutor(src.getExecutor());
-        info.setAsyncExecutor(src.getAsyncExecutor());
-        info.setTempDir(src.getTempDir());
-        info.setJspConfigDescriptor(src.getJspConfigDescriptor());
-        info.setDefaultServletConfig(src.getDefaultServletConfig());
-        for (Entry<String, String> en : src.getLocaleCharsetMapping().entrySet()) {
-            info.addLocaleCharsetMapping(en.getKey(), en.getValue());
-        }
-        info.setSessionManagerFactory(src.getSessionManagerFactory());
-        final LoginConfig loginConfig = src.getLoginConfig();
-        if (loginConfig != null) {
-            info.setLoginConfig(loginConfig.clone());
-        }
-        info.setIdentityManager(src.getIdentityManager());
-        info.setConfidentialPortManager(src.getConfidentialPortManager());
-        info.setDefaultEncoding(src.getDefaultEncoding());
-        info.setUrlEncoding(src.getUrlEncoding());
-        info.addSecurityConstraints(filterConstraints(src, uri));
-        for (HandlerWrapper w : src.getOuterHandlerChainWrappers()) {
-            info.addOuterHandlerChainWrapper(w);
-        }
-        for (HandlerWrapper w : src.getInnerHandlerChainWrappers()) {
-            info.addInnerHandlerChainWrapper(w);
-        }
-        info.setInitialSecurityWrapper(src.getInitialSecurityWrapper());
-        for (HandlerWrapper w : src.getSecurityWrappers()) {
-            info.addSecurityWrapper(w);
-        }
-        for (HandlerWrapper w : src.getInitialHandlerChainWrappers()) {
-            info.addInitialHandlerChainWrapper(w);
-        }
-        info.addSecurityRoles(src.getSecurityRoles());
-        info.addNotificationReceivers(src.getNotificationReceivers());
-        info.setAllowNonStandardWrappers(src.isAllowNonStandardWrappers());
-        info.setDefaultSessionTimeout(src.getDefaultSessionTimeout());
-        info.setServletContextAttributeBackingMap(src.getServletContextAttributeBackingMap());
-        info.setServletSessionConfig(src.getServletSessionConfig());
-        info.setHostName(src.getHostName());
-        info.setDenyUncoveredHttpMethods(src.isDenyUncoveredHttpMethods());
-        info.setServletStackTraces(src.getServletStackTraces());
-        info.setInvalidateSessionOnLogout(src.isInvalidateSessionOnLogout());
-        info.setDefaultCookieVersion(src.getDefaultCookieVersion());
-        info.setSessionPersistenceManager(src.getSessionPersistenceManager());
-        for (Map.Entry<String, Set<String>> e : src.getPrincipalVersusRolesMap().entrySet()) {
-            info.addPrincipalVsRoleMappings(e.getKey(), e.getValue());
-        }
-        info.setIgnoreFlush(src.isIgnoreFlush());
-        info.setAuthorizationManager(src.getAuthorizationManager());
-        for (Entry<String, AuthenticationMechanismFactory> e : src.getAuthenticationMechanisms().entrySet()) {
-            info.addAuthenticationMechanism(e.getKey(), e.getValue());
-        }
-        info.setJaspiAuthenticationMechanism(src.getJaspiAuthenticationMechanism());
-        info.setSecurityContextFactory(src.getSecurityContextFactory());
-        info.setServerName(src.getServerName());
-        info.setMetricsCollector(src.getMetricsCollector());
-        info.setSessionConfigWrapper(src.getSessionConfigWrapper());
-        info.setEagerFilterInit(src.isEagerFilterInit());
-        info.setDisableCachingForSecuredPages(src.isDisableCachingForSecuredPages());
-        info.setExceptionHandler(src.getExceptionHandler());
-        info.setEscapeErrorMessage(src.isEscapeErrorMessage());
-        for (SessionListener e : src.getSessionListeners()) {
-            info.addSessionListener(e);
-        }
-        for (LifecycleInterceptor e : src.getLifecycleInterceptors()) {
-            info.addLifecycleInterceptor(e);
-        }
-        info.setAuthenticationMode(src.getAuthenticationMode());
-        info.setDefaultMultipartConfig(src.getDefaultMultipartConfig());
-        info.setContentTypeCacheSize(src.getContentTypeCacheSize());
-        info.setSessionIdGenerator(src.getSessionIdGenerator());
-        info.setSendCustomReasonPhraseOnError(src.isSendCustomReasonPhraseOnError());
-        info.setChangeSessionIdOnLogin(src.isChangeSessionIdOnLogin());
-        info.setCrawlerSessionManagerConfig(src.getCrawlerSessionManagerConfig());
-        info.setSecurityDisabled(src.isSecurityDisabled());
-        info.setUseCachedAuthenticationMechanism(src.isUseCachedAuthenticationMechanism());
-        info.setCheckOtherSessionManagers(src.isCheckOtherSessionManagers());
-
-        return info;
     }
 
     public static ServiceController<CamelEndpointDeployerService> addService(DeploymentUnit deploymentUnit,
@@ -314,6 +449,7 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
                 CamelEndpointDeploymentSchedulerService.deploymentSchedulerServiceName(deploymentUnit.getServiceName()),
                 CamelEndpointDeploymentSchedulerService.class, service.deploymentSchedulerServiceSupplier);
         sb.addDependency(UndertowService.SERVLET_CONTAINER.append("default"), ServletContainerService.class, service.servletContainerServiceSupplier);
+        Services.addServerExecutorDependency(sb, service.executorSupplier);
 
         final EEModuleConfiguration moduleConfiguration = deploymentUnit
                 .getAttachment(org.jboss.as.ee.component.Attachments.EE_MODULE_CONFIGURATION);
@@ -329,62 +465,6 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
         return deploymentUnitServiceName.append(SERVICE_NAME);
     }
 
-    static List<SecurityConstraint> filterConstraints(DeploymentInfo mainDeploymentInfo, URI uri) {
-        final List<SecurityConstraint> result = new ArrayList<>();
-        final String uriPath = uri.getPath();
-        final String endpointUriPrefix = "//" + uriPath;
-        final String mainContextPath = mainDeploymentInfo.getContextPath();
-        final boolean isRelativeUri = uriPath.startsWith(mainContextPath);
-        final String relativeUriPath = isRelativeUri ? uriPath.substring(mainContextPath.length()) : null;
-        for (SecurityConstraint mainSecurityConstraint : mainDeploymentInfo.getSecurityConstraints()) {
-            final SecurityConstraint endpointSecurityConstraint = new SecurityConstraint();
-            for (WebResourceCollection mainResourceCollection : mainSecurityConstraint.getWebResourceCollections()) {
-                final WebResourceCollection endpointResourceCollection = new WebResourceCollection();
-                for (String mainUrlPattern : mainResourceCollection.getUrlPatterns()) {
-                    if (MATCH_ALL_ENDPOINT_URI_PREFIX.equals(mainUrlPattern)) {
-                        endpointResourceCollection.addUrlPattern(MATCH_ALL_PREFIX);
-                    } else {
-                        final UrlPattern pattern = new UrlPattern(mainUrlPattern);
-                        String relativePattern = null;
-                        if (isRelativeUri) {
-                            if ((relativePattern = pattern.relativize(relativeUriPath)) != null) {
-                                endpointResourceCollection.addUrlPattern(relativePattern);
-                            }
-                        } else if ((relativePattern = pattern.relativize(endpointUriPrefix)) != null) {
-                            endpointResourceCollection.addUrlPattern(relativePattern);
-                        }
-                    }
-                }
-                if (!endpointResourceCollection.getUrlPatterns().isEmpty()) {
-                    endpointResourceCollection.addHttpMethods(mainResourceCollection.getHttpMethods());
-                    endpointResourceCollection.addHttpMethodOmissions(mainResourceCollection.getHttpMethodOmissions());
-                    endpointSecurityConstraint.addWebResourceCollection(endpointResourceCollection);
-                }
-            }
-
-            if (!endpointSecurityConstraint.getWebResourceCollections().isEmpty()) {
-                endpointSecurityConstraint.addRolesAllowed(mainSecurityConstraint.getRolesAllowed());
-                endpointSecurityConstraint.setEmptyRoleSemantic(mainSecurityConstraint.getEmptyRoleSemantic());
-                endpointSecurityConstraint.setTransportGuaranteeType(
-                        transportGuaranteeType(uri, mainSecurityConstraint.getTransportGuaranteeType()));
-                result.add(endpointSecurityConstraint);
-            }
-
-        }
-        if (result.isEmpty() && uri.getScheme().equals("https")) {
-            final WebResourceCollection webResourceCollection = new WebResourceCollection();
-            webResourceCollection.addUrlPattern("/*");
-
-            final SecurityConstraint endpointSecurityConstraint = new SecurityConstraint();
-            endpointSecurityConstraint.addWebResourceCollection(webResourceCollection);
-            endpointSecurityConstraint.setTransportGuaranteeType(TransportGuaranteeType.CONFIDENTIAL);
-            endpointSecurityConstraint.setEmptyRoleSemantic(EmptyRoleSemantic.PERMIT);
-            result.add(endpointSecurityConstraint);
-        }
-
-        return result;
-    }
-
     static io.undertow.servlet.api.TransportGuaranteeType transportGuaranteeType(URI uri,
             final TransportGuaranteeType transportGuaranteeType) {
         if (uri.getScheme().equals("https")) {
@@ -406,7 +486,15 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
 
     private final InjectedValue<ServletContainerService> servletContainerServiceSupplier = new InjectedValue<>();
 
+    private final boolean nativeHandlerEnabled;
+
+    private final InjectedValue<ExecutorService> executorSupplier = new InjectedValue<>();
+
+    /** Built once in {@link #start(StartContext)} and shared by all endpoints of the main deployment */
+    private volatile DeploymentInfoTemplate deploymentInfoTemplate;
+
     public CamelEndpointDeployerService() {
+        this.nativeHandlerEnabled = Boolean.parseBoolean(SecurityActions.getSystemProperty(NATIVE_HANDLER_PROPERTY, "false"));
     }
 
     @Override
@@ -422,8 +510,14 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
      *        {@link URI}'s path
      */
     public void deploy(URI uri, EndpointHttpHandler endpointHttpHandler) {
+        deploy(uri, endpointHttpHandler, deploymentInfoTemplate());
+    }
+
+    private void deploy(URI uri, EndpointHttpHandler endpointHttpHandler, DeploymentInfoTemplate template) {
         doDeploy(
                 uri,
+                template,
+                null, // dispatch to the servlet
                 servletInstance -> servletInstance.setEndpointHttpHandler(endpointHttpHandler), // plug the endpointHttpHandler into the servlet
                 deploymentInfo -> {}, // no need to customize the deploymentInfo
                 deployment -> {} // no need to customize the deployment
@@ -438,38 +532,176 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
      *        {@link URI}'s path
      */
     public void deploy(URI uri, final HttpHandler routingHandler) {
+        deploy(uri, routingHandler, deploymentInfoTemplate());
+    }
+
+    private void deploy(URI uri, final HttpHandler routingHandler, DeploymentInfoTemplate template) {
         final Set<Deployment> availableDeployments = hostSupplier.getValue().getDeployments();
         if (!availableDeployments.stream().anyMatch(
                         deployment -> deployment.getHandler() instanceof CamelEndpointDeployerHandler
                     && ((CamelEndpointDeployerHandler) deployment.getHandler()).getRoutingHandler() == routingHandler)) {
             /* deploy only if the routing handler is not there already */
-            doDeploy(
-                    uri,
-                    servletInstance -> servletInstance.setEndpointHttpHandler(new DelegatingEndpointHttpHandler(routingHandler)), // plug the endpointHttpHandler into the servlet
-                    deploymentInfo -> deploymentInfo.addInnerHandlerChainWrapper(exchangeStoringHandlerWrapper), // add the handler to the chain
-                    deployment -> { // wrap the initial handler with our custom class so that we can recognize it at other places
-                        final HttpHandler servletHandler = new CamelEndpointDeployerHandler(deployment.getHandler(), routingHandler);
-                        deployment.setInitialHandler(servletHandler);
-                    });
+            final Consumer<DeploymentImpl> deploymentConsumer = deployment -> { // wrap the initial handler with our custom class so that we can recognize it at other places
+                final HttpHandler servletHandler = new CamelEndpointDeployerHandler(deployment.getHandler(), routingHandler);
+                deployment.setInitialHandler(servletHandler);
+            };
+            if (isNativeHandlerApplicable()) {
+                /* The routing handler replaces the servlet dispatching behind the security handlers */
+                doDeploy(
+                        uri,
+                        template,
+                        dispatchingHandler -> routingHandler,
+                        servletInstance -> {}, // the servlet is never called
+                        deploymentInfo -> addInitialHandlerChainWrapper(deploymentInfo, routingHandler),
+                        deploymentConsumer);
+            } else {
+                doDeploy(
+                        uri,
+                        template,
+                        null, // dispatch to the servlet
+                        servletInstance -> servletInstance.setEndpointHttpHandler(new DelegatingEndpointHttpHandler(routingHandler)), // plug the endpointHttpHandler into the servlet
+                        deploymentInfo -> { // add the handler to the chain
+                            deploymentInfo.addInnerHandlerChainWrapper(exchangeStoringHandlerWrapper);
+                            addInitialHandlerChainWrapper(deploymentInfo, routingHandler);
+                        },
+                        deploymentConsumer);
+            }
+        }
+    }
+
+    /**
+     * A routing handler that is also a {@link HandlerWrapper} wraps the initial handler of the deployment, e.g. to
+     * apply a request limit outside of the servlet request lifecycle.
+     */
+    private static void addInitialHandlerChainWrapper(DeploymentInfo deploymentInfo, HttpHandler routingHandler) {
+        if (routingHandler instanceof HandlerWrapper) {
+            deploymentInfo.addInitialHandlerChainWrapper((HandlerWrapper) routingHandler);
+        }
+    }
+
+    /**
+     * Exposes the given HTTP endpoints in parallel on the server executor. If an endpoint cannot be exposed, the
+     * endpoints exposed so far are unexposed again before the failure is reported.
+     *
+     * @param endpoints a {@link Map} from {@link URI}s under which the endpoints should be exposed to either
+     *        {@link EndpointHttpHandler}s or {@link HttpHandler}s serving them
+     * @param callback called with {@code null} once all endpoints are exposed or with the failure, possibly on a
+     *        thread of the server executor
+     */
+    public void deploy(Map<URI, Object> endpoints, Consumer<RuntimeException> callback) {
+        if (endpoints.isEmpty()) {
+            callback.accept(null);
+            return;
+        }
+        final long start = System.nanoTime();
+        final DeploymentInfoTemplate template = deploymentInfoTemplate();
+        /* A routing handler shared by several URIs is deployed only once, under the first of them */
+        final Queue<Entry<URI, Object>> pending = new ConcurrentLinkedQueue<>();
+        final Set<Object> routingHandlers = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Entry<URI, Object> en : endpoints.entrySet()) {
+            if (!(en.getValue() instanceof HttpHandler) || routingHandlers.add(en.getValue())) {
+                pending.add(en);
+            }
+        }
+        final Queue<URI> deployed = new ConcurrentLinkedQueue<>();
+        final Queue<RuntimeException> failures = new ConcurrentLinkedQueue<>();
+        final Runnable completion = () -> {
+            final RuntimeException failure = failures.poll();
+            if (failure == null) {
+                CamelLogger.LOGGER.debug("Deployed {} HTTP endpoints of {} in {} ms", endpoints.size(),
+                        template.getSource().getDeploymentName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } else {
+                failures.forEach(failure::addSuppressed);
+                deployed.forEach(this::undeploy);
+            }
+            callback.accept(failure);
+        };
+        final Runnable worker = () -> {
+            Entry<URI, Object> en;
+            while (failures.isEmpty() && (en = pending.poll()) != null) {
+                try {
+                    deploy(en.getKey(), en.getValue(), template);
+                    deployed.add(en.getKey());
+                } catch (RuntimeException ex) {
+                    failures.add(ex);
+                }
+            }
+        };
+        final int workers = Math.min(pending.size(), Runtime.getRuntime().availableProcessors());
+        if (workers <= 1) {
+            worker.run();
+            completion.run();
+            return;
+        }
+        /* At most one task per processor so that a large batch does not flood the shared server executor; the last
+         * worker to finish reports the result so that no thread waits for the others */
+        final AtomicInteger running = new AtomicInteger(workers);
+        final ExecutorService executor = executorSupplier.getValue();
+        for (int i = 0; i < workers; i++) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        worker.run();
+                    } finally {
+                        if (running.decrementAndGet() == 0) {
+                            completion.run();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                failures.add(ex);
+                if (running.decrementAndGet() == 0) {
+                    completion.run();
+                }
+            }
+        }
+    }
+
+    private void deploy(URI uri, Object handler, DeploymentInfoTemplate template) {
+        if (handler instanceof EndpointHttpHandler) {
+            deploy(uri, (EndpointHttpHandler) handler, template);
+        } else if (handler instanceof HttpHandler) {
+            deploy(uri, (HttpHandler) handler, template);
+        } else {
+            throw new IllegalStateException("Unexpected type "+ (handler == null ? "null" : handler.getClass().getName()));
+        }
+    }
+
+    /**
+     * Filters can only be applied by the servlet chain, so the native mode is used only if the main deployment maps
+     * none.
+     *
+     * @return {@code true} if the routing handlers can be mounted directly into the Undertow handler chain
+     */
+    private boolean isNativeHandlerApplicable() {
+        if (!nativeHandlerEnabled) {
+            return false;
+        }
+        final DeploymentInfo mainDeploymentInfo = deploymentInfoSupplier.getValue();
+        if (!mainDeploymentInfo.getFilterMappings().isEmpty()) {
+            CamelLogger.LOGGER.debug("Filters mapped in {}; dispatching to the routing handler through a servlet",
+                    mainDeploymentInfo.getDeploymentName());
+            return false;
         }
+        return true;
     }
 
     /**
      * The stuff common for {@link #deploy(URI, EndpointHttpHandler)} and {@link #deploy(URI, HttpHandler)}.
      *
      * @param uri
+     * @param template the {@link DeploymentInfoTemplate} to create the endpoint {@link DeploymentInfo} from
+     * @param dispatchingHandlerWrapper if not {@code null}, replaces or wraps the servlet dispatching handler
      * @param endpointServletConsumer customize the {@link EndpointServlet}
      * @param deploymentInfoConsumer customize the {@link DeploymentInfo}
      * @param deploymentConsumer customize the {@link DeploymentImpl}
      */
-    void doDeploy(URI uri, Consumer<EndpointServlet> endpointServletConsumer, Consumer<DeploymentInfo> deploymentInfoConsumer, Consumer<DeploymentImpl> deploymentConsumer) {
+    void doDeploy(URI uri, DeploymentInfoTemplate template, HandlerWrapper dispatchingHandlerWrapper, Consumer<EndpointServlet> endpointServletConsumer, Consumer<DeploymentInfo> deploymentInfoConsumer, Consumer<DeploymentImpl> deploymentConsumer) {
 
         final ServletInfo servletInfo = Servlets.servlet(EndpointServlet.NAME, EndpointServlet.class).addMapping("/*")
                 .setAsyncSupported(true);
 
-        final DeploymentInfo mainDeploymentInfo = deploymentInfoSupplier.getValue();
-
-        DeploymentInfo endPointDeplyomentInfo = adaptDeploymentInfo(mainDeploymentInfo, uri, servletInfo);
+        DeploymentInfo endPointDeplyomentInfo = template.adapt(uri, servletInfo, dispatchingHandlerWrapper);
         deploymentInfoConsumer.accept(endPointDeplyomentInfo);
         CamelLogger.LOGGER.debug("Deploying endpoint {}", endPointDeplyomentInfo.getDeploymentName());
 
@@ -500,12 +732,31 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
         }
     }
 
+    private DeploymentInfoTemplate deploymentInfoTemplate() {
+        final DeploymentInfoTemplate result = deploymentInfoTemplate;
+        if (result == null) {
+            throw new IllegalStateException(CamelEndpointDeployerService.class.getSimpleName() + " not started");
+        }
+        return result;
+    }
+
     @Override
     public void start(StartContext context) throws StartException {
+        deploymentInfoTemplate = new DeploymentInfoTemplate(deploymentInfoSupplier.getValue());
         /*
-         * Now that the injectedMainDeploymentInfo is ready, we can link this to CamelEndpointDeploymentSchedulerService
+         * Now that the injectedMainDeploymentInfo is ready, we can link this to CamelEndpointDeploymentSchedulerService.
+         * The scheduled endpoints are deployed on the server executor, so the start completes asynchronously.
          */
-        deploymentSchedulerServiceSupplier.getValue().registerDeployer(this);
+        context.asynchronous();
+        deploymentSchedulerServiceSupplier.getValue().registerDeployer(this, failure -> {
+            if (failure == null) {
+                context.complete();
+            } else {
+                deploymentInfoTemplate = null;
+                context.failed(new StartException("Cannot deploy the HTTP endpoints of "
+                        + deploymentInfoSupplier.getValue().getDeploymentName(), failure));
+            }
+        });
     }
 
     @Override
@@ -516,6 +767,7 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
             }
             deployments.clear();
         }
+        deploymentInfoTemplate = null;
     }
 
     /**
@@ -643,49 +895,53 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
     static class UrlPattern {
 
         private final String source;
+        /** The tokens of {@link #source} including the {@code /} delimiters */
+        private final String[] tokens;
+        /** The segment matchers; {@code null} at the indexes of {@code /} delimiters in {@link #tokens} */
+        private final SegmentMatcher[] segmentMatchers;
 
         public UrlPattern(String source) {
             super();
             this.source = source;
+            final StringTokenizer patternTokenizer = new StringTokenizer(source, "/", true);
+            final List<String> tokenList = new ArrayList<>();
+            while (patternTokenizer.hasMoreTokens()) {
+                tokenList.add(patternTokenizer.nextToken());
+            }
+            this.tokens = tokenList.toArray(new String[tokenList.size()]);
+            this.segmentMatchers = new SegmentMatcher[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                final String patternToken = tokens[i];
+                if (!patternToken.equals("/")) {
+                    segmentMatchers[i] = SegmentMatcher.compile(patternToken);
+                }
+            }
         }
 
         public String relativize(String path) {
-            final StringTokenizer patternTokenizer = new StringTokenizer(source, "/", true);
             final StringTokenizer pathTokenizer = new StringTokenizer(path, "/", true);
+            int i = 0;
             /* skip the common segments */
             while (pathTokenizer.hasMoreTokens()) {
-                if (!patternTokenizer.hasMoreTokens()) {
+                if (i >= tokens.length) {
                     return null;
                 }
-                final String patternToken = patternTokenizer.nextToken();
+                final SegmentMatcher segmentMatcher = segmentMatchers[i++];
                 final String pathToken = pathTokenizer.nextToken();
-                final boolean isSlash = patternToken.equals("/");
+                final boolean isSlash = segmentMatcher == null;
                 if (isSlash != pathToken.equals("/")) {
                     return null;
                 } else if (!isSlash) {
                     if ("*".equals(pathToken)) {
                         continue;
-                    } else {
-                        final StringTokenizer segmentTokenizer = new StringTokenizer(patternToken, "*", true);
-                        final StringBuilder segmentPatternBuilder = new StringBuilder(patternToken.length());
-                        while (segmentTokenizer.hasMoreTokens()) {
-                            final String segmentToken = segmentTokenizer.nextToken();
-                            if ("*".equals(segmentToken)) {
-                                segmentPatternBuilder.append(".*");
-                            } else {
-                                segmentPatternBuilder.append(Pattern.quote(segmentToken));
-                            }
-                        }
-                        final Pattern pat = Pattern.compile(segmentPatternBuilder.toString());
-                        if (!pat.matcher(pathToken).matches()) {
-                            return null;
-                        }
+                    } else if (!segmentMatcher.matches(pathToken)) {
+                        return null;
                     }
                 }
             }
             final StringBuilder result = new StringBuilder();
-            while (patternTokenizer.hasMoreTokens()) {
-                result.append(patternTokenizer.nextToken());
+            while (i < tokens.length) {
+                result.append(tokens[i++]);
             }
             if (result.length() == 0) {
                 return "";
@@ -695,5 +951,86 @@ public class CamelEndpointDeployerService implements Service<CamelEndpointDeploy
                 return result.toString();
             }
         }
+
+        @Override
+        public String toString() {
+            return source;
+        }
+    }
+
+    /**
+     * Matches a single path segment against a pattern segment where {@code *} stands for any sequence of characters.
+     */
+    abstract static class SegmentMatcher {
+
+        private static final SegmentMatcher ANY = new SegmentMatcher() {
+            @Override
+            boolean matches(String segment) {
+                return true;
+            }
+        };
+
+        /**
+         * @param patternSegment a pattern segment not containing {@code /}
+         * @return a new {@link SegmentMatcher} or a shared one if {@code patternSegment} consists of {@code *}s only
+         */
+        static SegmentMatcher compile(String patternSegment) {
+            if (patternSegment.indexOf('*') < 0) {
+                return new Literal(patternSegment);
+            }
+            final String[] parts = patternSegment.split("\\*", -1);
+            for (String part : parts) {
+                if (!part.isEmpty()) {
+                    return new Glob(parts);
+                }
+            }
+            return ANY;
+        }
+
+        abstract boolean matches(String segment);
+
+        static class Literal extends SegmentMatcher {
+            private final String literal;
+
+            Literal(String literal) {
+                this.literal = literal;
+            }
+
+            @Override
+            boolean matches(String segment) {
+                return literal.equals(segment);
+            }
+        }
+
+        /**
+         * The parts between the {@code *}s must occur in the given order; the first part must be a prefix and the last
+         * part must be a suffix of the matched segment.
+         */
+        static class Glob extends SegmentMatcher {
+            private final String[] parts;
+
+            Glob(String[] parts) {
+                this.parts = parts;
+            }
+
+            @Override
+            boolean matches(String segment) {
+                final String first = parts[0];
+                if (!segment.startsWith(first)) {
+                    return false;
+                }
+                int pos = first.length();
+                final int lastIndex = parts.length - 1;
+                for (int i = 1; i < lastIndex; i++) {
+                    final int found = segment.indexOf(parts[i], pos);
+                    if (found < 0) {
+                        return false;
+                    }
+                    pos = found + parts[i].length();
+                }
+                final String last = parts[lastIndex];
+                return segment.length() - last.length() >= pos && segment.endsWith(last);
+            }
+        }
     }
 }
@@ -21,10 +21,12 @@ package org.wildfly.extension.camel.service;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -108,7 +110,12 @@ public class CamelEndpointDeploymentSchedulerService implements Service<CamelEnd
     private final String deploymentName;
 
     /** Let's use values for both {@link HttpHandler}s and {@link EndpointHttpHandler}s */
-    private final Map<URI, Object> scheduledHandlers = new HashMap<>();
+    private final Map<URI, Object> scheduledHandlers = new LinkedHashMap<>();
+
+    /** The batch being deployed by {@link #registerDeployer(CamelEndpointDeployerService, Consumer)}, guarded by {@link #scheduledHandlers} */
+    private Map<URI, Object> deployingHandlers;
+    /** The URIs of {@link #deployingHandlers} unscheduled while the batch is being deployed */
+    private final Set<URI> unscheduledHandlers = new HashSet<>();
 
     CamelEndpointDeploymentSchedulerService(String deploymentName) {
         super();
@@ -151,28 +158,48 @@ public class CamelEndpointDeploymentSchedulerService implements Service<CamelEnd
     }
 
     /**
-     * Sets the {@link CamelEndpointDeployerService} and deploys any endpoints scheduled for deployment so far.
+     * Deploys any endpoints scheduled for deployment so far and then sets the {@link CamelEndpointDeployerService}.
+     * Endpoints scheduled or unscheduled while the batch is being deployed are handled once it is complete. If the
+     * batch fails, its endpoints stay scheduled.
      *
      * @param deploymentService the {@link CamelEndpointDeployerService}
+     * @param callback called with {@code null} once the scheduled endpoints are deployed or with the failure
      */
-    public void registerDeployer(CamelEndpointDeployerService deploymentService) {
+    public void registerDeployer(CamelEndpointDeployerService deploymentService, Consumer<RuntimeException> callback) {
+        final Map<URI, Object> batch;
         synchronized (scheduledHandlers) {
-            /* Deploy the endpoints scheduled so far */
-            for (Iterator<Entry<URI, Object>> it = scheduledHandlers.entrySet().iterator(); it
-                    .hasNext();) {
-                final Entry<URI, Object> en = it.next();
-                final Object handler = en.getValue();
-                if (handler instanceof EndpointHttpHandler) {
-                    deploymentService.deploy(en.getKey(), (EndpointHttpHandler) handler);
-                } else if (handler instanceof HttpHandler) {
-                    deploymentService.deploy(en.getKey(), (HttpHandler) handler);
+            batch = new LinkedHashMap<>(scheduledHandlers);
+            scheduledHandlers.clear();
+            deployingHandlers = batch;
+        }
+        /* Deploy the endpoints scheduled so far in a single batch */
+        deploymentService.deploy(batch, failure -> {
+            synchronized (scheduledHandlers) {
+                deployingHandlers = null;
+                if (failure == null) {
+                    for (URI uri : unscheduledHandlers) {
+                        deploymentService.undeploy(uri);
+                    }
+                    for (Entry<URI, Object> en : scheduledHandlers.entrySet()) {
+                        if (en.getValue() instanceof EndpointHttpHandler) {
+                            deploymentService.deploy(en.getKey(), (EndpointHttpHandler) en.getValue());
+                        } else {
+                            deploymentService.deploy(en.getKey(), (HttpHandler) en.getValue());
+                        }
+                    }
+                    scheduledHandlers.clear();
+                    this.deployerService = deploymentService;
                 } else {
-                    throw new IllegalStateException("Unexpected type "+ (handler == null ? "null" : handler.getClass().getName()));
+                    final Map<URI, Object> remaining = new LinkedHashMap<>(batch);
+                    remaining.keySet().removeAll(unscheduledHandlers);
+                    remaining.putAll(scheduledHandlers);
+                    scheduledHandlers.clear();
+                    scheduledHandlers.putAll(remaining);
                 }
-                it.remove();
+                unscheduledHandlers.clear();
             }
-            this.deployerService = deploymentService;
-        }
+            callback.accept(failure);
+        });
     }
 
     @Override
@@ -198,6 +225,9 @@ public class CamelEndpointDeploymentSchedulerService implements Service<CamelEnd
                 this.deployerService.undeploy(uri);
             } else {
                 scheduledHandlers.remove(uri);
+                if (deployingHandlers != null && deployingHandlers.containsKey(uri)) {
+                    unscheduledHandlers.add(uri);
+                }
             }
         }
     }
@@ -0,0 +1,289 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.service;
+
+import static org.wildfly.extension.camel.CamelLogger.LOGGER;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.apache.camel.CamelContext;
+import org.jboss.msc.service.ServiceTarget;
+import org.wildfly.extension.camel.CamelCoreSubsystemExtension;
+import org.wildfly.extension.camel.CamelSubsytemExtension;
+import org.wildfly.extension.camel.parser.SubsystemState;
+
+/**
+ * Notifies the {@link CamelSubsytemExtension}s about added and removed {@link CamelContext}s.
+ *
+ * The {@link CamelCoreSubsystemExtension}, which binds the contexts in JNDI, is notified synchronously so that the
+ * binding exists when the context has started and is gone when it has stopped. The other extensions are notified
+ * asynchronously on the server executor. Every context name is assigned to a single stripe whose notifications are
+ * executed one after the other, so that the notifications about a context replacing another one with the same name
+ * are delivered in order. Extensions that do not override a callback are not notified about it, so no task is queued
+ * for them.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+final class CamelSubsystemExtensionDispatcher {
+
+    private static final int STRIPE_COUNT = 4;
+    private static final long SLOW_CALLBACK_MILLIS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+
+    /** Whether an extension class overrides {@link CamelSubsytemExtension#addCamelContext(ServiceTarget, CamelContext)} */
+    private static final ClassValue<Boolean> ADD_OVERRIDDEN = overridden("addCamelContext", ServiceTarget.class, CamelContext.class);
+    /** Whether an extension class overrides {@link CamelSubsytemExtension#removeCamelContext(CamelContext)} */
+    private static final ClassValue<Boolean> REMOVE_OVERRIDDEN = overridden("removeCamelContext", CamelContext.class);
+
+    private final SubsystemState subsystemState;
+    private final Executor executor;
+    private final ClassLoader classLoader = CamelSubsystemExtensionDispatcher.class.getClassLoader();
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final Map<String, ExtensionTiming> timings = new ConcurrentHashMap<>();
+    private final AtomicBoolean terminated = new AtomicBoolean();
+    private final AtomicBoolean overdue = new AtomicBoolean();
+    /** {@code 0} until {@link #shutdown(Runnable)} is called */
+    private volatile long shutdownDeadline;
+    private volatile Runnable terminationCallback;
+
+    CamelSubsystemExtensionDispatcher(SubsystemState subsystemState, Executor executor) {
+        this.subsystemState = subsystemState;
+        this.executor = executor;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    void addCamelContext(ServiceTarget serviceTarget, CamelContext camelctx) {
+        dispatch(camelctx, "addCamelContext", ADD_OVERRIDDEN, plugin -> plugin.addCamelContext(serviceTarget, camelctx));
+    }
+
+    void removeCamelContext(CamelContext camelctx) {
+        dispatch(camelctx, "removeCamelContext", REMOVE_OVERRIDDEN, plugin -> plugin.removeCamelContext(camelctx));
+    }
+
+    /**
+     * @return a snapshot of the time spent in the callbacks of each {@link CamelSubsytemExtension} keyed by the
+     *         extension class name
+     */
+    Map<String, ExtensionTiming> getTimings() {
+        return Collections.unmodifiableMap(new TreeMap<>(timings));
+    }
+
+    /**
+     * Lets the stripes execute the notifications dispatched so far without blocking the calling thread. The given
+     * callback is invoked once all stripes are idle; the notifications dispatched after that are executed by the
+     * dispatching thread. So are the notifications dispatched more than {@value #SHUTDOWN_TIMEOUT_MILLIS} ms after
+     * this call, together with those still queued on their stripe, so that no notification is lost.
+     */
+    void shutdown(Runnable callback) {
+        terminationCallback = callback;
+        shutdownDeadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        checkTerminated();
+    }
+
+    private void checkTerminated() {
+        if (shutdownDeadline == 0) {
+            return;
+        }
+        for (Stripe stripe : stripes) {
+            if (!stripe.isIdle()) {
+                return;
+            }
+        }
+        if (terminated.compareAndSet(false, true)) {
+            terminationCallback.run();
+        }
+    }
+
+    private void dispatch(CamelContext camelctx, String callback, ClassValue<Boolean> overridden, Consumer<CamelSubsytemExtension> action) {
+        final Stripe stripe = stripes[(String.valueOf(camelctx.getName()).hashCode() & Integer.MAX_VALUE) % STRIPE_COUNT];
+        subsystemState.processExtensions(plugin -> {
+            if (plugin instanceof CamelCoreSubsystemExtension || terminated.get()) {
+                invoke(plugin, callback, camelctx, action);
+            } else if (!overridden.get(plugin.getClass())) {
+                return;
+            } else if (isOverdue()) {
+                stripe.executeNow(() -> invoke(plugin, callback, camelctx, action));
+            } else {
+                stripe.execute(() -> invoke(plugin, callback, camelctx, action));
+            }
+        });
+    }
+
+    private boolean isOverdue() {
+        final long deadline = shutdownDeadline;
+        if (deadline == 0 || System.currentTimeMillis() <= deadline) {
+            return false;
+        }
+        if (overdue.compareAndSet(false, true)) {
+            LOGGER.warn("Camel subsystem extension notifications still pending {} ms after the shutdown; executing them on the dispatching threads", SHUTDOWN_TIMEOUT_MILLIS);
+        }
+        return true;
+    }
+
+    private static ClassValue<Boolean> overridden(String name, Class<?>... parameterTypes) {
+        return new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                try {
+                    return type.getMethod(name, parameterTypes).getDeclaringClass() != CamelSubsytemExtension.class;
+                } catch (NoSuchMethodException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+    }
+
+    private void invoke(CamelSubsytemExtension plugin, String callback, CamelContext camelctx, Consumer<CamelSubsytemExtension> action) {
+        final long start = System.nanoTime();
+        try {
+            action.accept(plugin);
+        } catch (RuntimeException ex) {
+            LOGGER.error("Cannot notify " + plugin.getClass().getName() + "." + callback + " of " + camelctx.getName(), ex);
+        } finally {
+            final long nanos = System.nanoTime() - start;
+            timings.computeIfAbsent(plugin.getClass().getName(), k -> new ExtensionTiming()).record(nanos);
+            final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            if (millis >= SLOW_CALLBACK_MILLIS) {
+                LOGGER.warn("{}.{} took {} ms for {}", plugin.getClass().getName(), callback, millis, camelctx.getName());
+            }
+        }
+    }
+
+    /**
+     * Executes its notifications one after the other on the server executor; at most one task of a stripe is
+     * submitted to the executor at any time. The queue is unbounded so that the dispatching threads never block on it.
+     */
+    private final class Stripe implements Runnable {
+
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        /** Held while a notification of this stripe is executed, so that they never run concurrently */
+        private final Lock lock = new ReentrantLock();
+
+        void execute(Runnable notification) {
+            queue.add(notification);
+            schedule();
+        }
+
+        /**
+         * Executes the queued notifications and then the given one on the calling thread.
+         */
+        void executeNow(Runnable notification) {
+            lock.lock();
+            try {
+                drain();
+                notification.run();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isIdle() {
+            return !scheduled.get() && queue.isEmpty();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    /* Do not lose the notifications if the server executor is not available anymore */
+                    run();
+                }
+            }
+        }
+
+        private void drain() {
+            Runnable notification;
+            while ((notification = queue.poll()) != null) {
+                notification.run();
+            }
+        }
+
+        @Override
+        public void run() {
+            final ClassLoader tccl = SecurityActions.getContextClassLoader();
+            SecurityActions.setContextClassLoader(classLoader);
+            lock.lock();
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+                SecurityActions.setContextClassLoader(tccl);
+                scheduled.set(false);
+            }
+            if (!queue.isEmpty()) {
+                schedule();
+            } else {
+                checkTerminated();
+            }
+        }
+    }
+
+    /**
+     * The number of callback invocations of a {@link CamelSubsytemExtension} and the time spent in them.
+     */
+    static final class ExtensionTiming {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count: %d, total: %d ms, max: %d ms", getCount(),
+                    TimeUnit.NANOSECONDS.toMillis(getTotalNanos()), TimeUnit.NANOSECONDS.toMillis(getMaxNanos()));
+        }
+    }
+}
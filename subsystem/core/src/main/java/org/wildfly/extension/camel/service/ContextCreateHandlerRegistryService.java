@@ -22,11 +22,14 @@ package org.wildfly.extension.camel.service;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.Consumer;
 
+import org.jboss.as.naming.ManagedReferenceFactory;
+import org.jboss.as.naming.deployment.ContextNames;
 import org.jboss.msc.service.AbstractService;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceContainer;
@@ -34,6 +37,7 @@ import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
+import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.camel.CamelConstants;
 import org.wildfly.extension.camel.CamelSubsytemExtension;
 import org.wildfly.extension.camel.ContextCreateHandler;
@@ -41,6 +45,7 @@ import org.wildfly.extension.camel.ContextCreateHandlerRegistry;
 import org.wildfly.extension.camel.handler.ClassResolverAssociationHandler;
 import org.wildfly.extension.camel.handler.ComponentResolverAssociationHandler;
 import org.wildfly.extension.camel.handler.ModuleClassLoaderAssociationHandler;
+import org.wildfly.extension.camel.handler.ThreadPoolFactoryAssociationHandler;
 import org.wildfly.extension.camel.parser.SubsystemState;
 
 /**
@@ -52,12 +57,18 @@ import org.wildfly.extension.camel.parser.SubsystemState;
 public class ContextCreateHandlerRegistryService extends AbstractService<ContextCreateHandlerRegistry> {
 
     private final SubsystemState subsystemState;
+    private final InjectedValue<ManagedReferenceFactory> injectedThreadFactory = new InjectedValue<>();
 
     private ContextCreateHandlerRegistry createHandlerRegistry;
 
     public static ServiceController<ContextCreateHandlerRegistry> addService(ServiceTarget serviceTarget, SubsystemState subsystemState) {
         ContextCreateHandlerRegistryService service = new ContextCreateHandlerRegistryService(subsystemState);
         ServiceBuilder<ContextCreateHandlerRegistry> builder = serviceTarget.addService(CamelConstants.CONTEXT_CREATE_HANDLER_REGISTRY_SERVICE_NAME, service);
+        String threadFactoryName = subsystemState.getManagedThreadFactory();
+        if (threadFactoryName != null) {
+            ContextNames.BindInfo bindInfo = ContextNames.bindInfoFor(threadFactoryName);
+            builder.addDependency(bindInfo.getBinderServiceName(), ManagedReferenceFactory.class, service.injectedThreadFactory);
+        }
         return builder.install();
     }
 
@@ -68,7 +79,19 @@ public class ContextCreateHandlerRegistryService extends AbstractService<Context
     @Override
     public void start(StartContext startContext) throws StartException {
         ServiceContainer serviceContainer = startContext.getController().getServiceContainer();
-        createHandlerRegistry = new ContextCreateHandlerRegistryImpl(serviceContainer, startContext.getChildTarget());
+        createHandlerRegistry = new ContextCreateHandlerRegistryImpl(serviceContainer, startContext.getChildTarget(), getManagedThreadFactory());
+    }
+
+    private ThreadFactory getManagedThreadFactory() throws StartException {
+        ManagedReferenceFactory factory = injectedThreadFactory.getOptionalValue();
+        if (factory == null) {
+            return null;
+        }
+        Object bound = factory.getReference().getInstance();
+        if (!(bound instanceof ThreadFactory)) {
+            throw new StartException("Not a ThreadFactory: " + bound + " bound at " + subsystemState.getManagedThreadFactory());
+        }
+        return (ThreadFactory) bound;
     }
 
     @Override
@@ -76,16 +99,24 @@ public class ContextCreateHandlerRegistryService extends AbstractService<Context
         return createHandlerRegistry;
     }
 
+    /**
+     * Keeps immutable handler lists which are replaced on every change so that reading them needs neither locking nor
+     * copying. The class loaders are referenced strongly because the handlers registered for them usually reference
+     * them as well; the deployment processors release a class loader by removing its handlers on undeploy.
+     */
     final class ContextCreateHandlerRegistryImpl implements ContextCreateHandlerRegistry {
 
-        private final Map<ClassLoader, List<ContextCreateHandler>> handlerMapping = new HashMap<>();
+        private final Map<ClassLoader, List<ContextCreateHandler>> handlerMapping = new ConcurrentHashMap<>();
+        private final Object writeLock = new Object();
+        private volatile List<ContextCreateHandler> defaultHandlers = Collections.emptyList();
 
-        ContextCreateHandlerRegistryImpl(final ServiceContainer serviceContainer, final ServiceTarget serviceTarget) {
+        ContextCreateHandlerRegistryImpl(final ServiceContainer serviceContainer, final ServiceTarget serviceTarget, final ThreadFactory managedThreadFactory) {
 
             // Setup the default handlers
             addContextCreateHandler(null, new ModuleClassLoaderAssociationHandler());
             addContextCreateHandler(null, new ClassResolverAssociationHandler());
             addContextCreateHandler(null, new ComponentResolverAssociationHandler(subsystemState));
+            addContextCreateHandler(null, new ThreadPoolFactoryAssociationHandler(subsystemState, managedThreadFactory));
 
             subsystemState.processExtensions(new Consumer<CamelSubsytemExtension>() {
                 @Override
@@ -100,52 +131,55 @@ public class ContextCreateHandlerRegistryService extends AbstractService<Context
 
         @Override
         public List<ContextCreateHandler> getContextCreateHandlers(ClassLoader classsLoader) {
-            List<ContextCreateHandler> result = new ArrayList<>();
-            synchronized (handlerMapping) {
-                List<ContextCreateHandler> handlers = handlerMapping.get(classsLoader);
-                if (handlers != null) {
-                    result.addAll(handlers);
-                }
+            if (classsLoader == null) {
+                return defaultHandlers;
             }
-            return Collections.unmodifiableList(result);
+            List<ContextCreateHandler> handlers = handlerMapping.get(classsLoader);
+            return handlers != null ? handlers : Collections.emptyList();
         }
 
         @Override
         public void addContextCreateHandler(ClassLoader classsLoader, ContextCreateHandler handler) {
-            synchronized (handlerMapping) {
-                List<ContextCreateHandler> handlers = handlerMapping.get(classsLoader);
-                if (handlers == null) {
-                    handlers = new ArrayList<>();
-                    handlerMapping.put(classsLoader, handlers);
-                }
+            synchronized (writeLock) {
+                List<ContextCreateHandler> handlers = new ArrayList<>(getContextCreateHandlers(classsLoader));
                 handlers.add(handler);
+                update(classsLoader, handlers);
             }
         }
 
         @Override
         public void removeContextCreateHandler(ClassLoader classsLoader, ContextCreateHandler handler) {
-            synchronized (handlerMapping) {
-                List<ContextCreateHandler> handlers = handlerMapping.get(classsLoader);
-                if (handlers != null) {
-                    handlers.remove(handler);
-                    if (handlers.isEmpty()) {
-                        handlerMapping.remove(classsLoader);
-                    }
+            synchronized (writeLock) {
+                List<ContextCreateHandler> handlers = new ArrayList<>(getContextCreateHandlers(classsLoader));
+                if (handlers.remove(handler)) {
+                    update(classsLoader, handlers);
                 }
             }
         }
 
         @Override
         public void removeContextCreateHandlers(ClassLoader classsLoader) {
-            synchronized (handlerMapping) {
-                handlerMapping.remove(classsLoader);
+            synchronized (writeLock) {
+                update(classsLoader, Collections.emptyList());
             }
         }
 
         @Override
         public boolean containsKey(ClassLoader classLoader) {
-            synchronized (handlerMapping) {
-                return handlerMapping.containsKey(classLoader);
+            if (classLoader == null) {
+                return !defaultHandlers.isEmpty();
+            }
+            return handlerMapping.containsKey(classLoader);
+        }
+
+        private void update(ClassLoader classLoader, List<ContextCreateHandler> handlers) {
+            List<ContextCreateHandler> snapshot = handlers.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(handlers);
+            if (classLoader == null) {
+                defaultHandlers = snapshot;
+            } else if (snapshot.isEmpty()) {
+                handlerMapping.remove(classLoader);
+            } else {
+                handlerMapping.put(classLoader, snapshot);
             }
         }
     }
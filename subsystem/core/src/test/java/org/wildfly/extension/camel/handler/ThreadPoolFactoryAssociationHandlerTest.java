@@ -0,0 +1,32 @@
+package org.wildfly.extension.camel.handler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.ThreadPoolRejectedPolicy;
+import org.apache.camel.builder.ThreadPoolProfileBuilder;
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ThreadPoolFactoryAssociationHandlerTest {
+
+    @Test
+    public void testApplyDefaults() {
+        ThreadPoolProfile defaultProfile = new ThreadPoolProfileBuilder("defaultThreadPoolProfile").poolSize(10).maxPoolSize(20)
+                .keepAliveTime(60L, TimeUnit.SECONDS).maxQueueSize(1000).allowCoreThreadTimeOut(false)
+                .rejectedPolicy(ThreadPoolRejectedPolicy.CallerRuns).build();
+
+        ThreadPoolProfile profile = new ThreadPoolProfile(ThreadPoolFactoryAssociationHandler.DEFAULT_PROFILE_ID);
+        profile.setMaxPoolSize(50);
+        profile.setRejectedPolicy(ThreadPoolRejectedPolicy.Abort);
+        ThreadPoolFactoryAssociationHandler.applyDefaults(profile, defaultProfile);
+
+        Assert.assertEquals("defaultThreadPoolProfile", defaultProfile.getId());
+        Assert.assertEquals(Integer.valueOf(10), defaultProfile.getPoolSize());
+        Assert.assertEquals(Integer.valueOf(50), defaultProfile.getMaxPoolSize());
+        Assert.assertEquals(Long.valueOf(60), defaultProfile.getKeepAliveTime());
+        Assert.assertEquals(Integer.valueOf(1000), defaultProfile.getMaxQueueSize());
+        Assert.assertEquals(ThreadPoolRejectedPolicy.Abort, defaultProfile.getRejectedPolicy());
+        Assert.assertNull(profile.getPoolSize());
+    }
+}
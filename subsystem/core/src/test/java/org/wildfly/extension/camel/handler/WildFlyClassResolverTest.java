@@ -0,0 +1,102 @@
+package org.wildfly.extension.camel.handler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wildfly.extension.camel.handler.WildFlyClassResolver.Lookup;
+import org.wildfly.extension.camel.handler.WildFlyClassResolver.LookupCache;
+
+public class WildFlyClassResolverTest {
+
+    @Test
+    public void testLookups() {
+        final LookupCache cache = new LookupCache(4);
+        Assert.assertNull(cache.get("java.lang.String"));
+        cache.put("java.lang.String", String.class);
+        cache.put("org.acme.Missing", null);
+
+        final Lookup found = cache.get("java.lang.String");
+        Assert.assertFalse(found.isNotFound());
+        Assert.assertSame(String.class, found.getLoadedClass());
+
+        final Lookup missing = cache.get("org.acme.Missing");
+        Assert.assertTrue(missing.isNotFound());
+        Assert.assertNull(missing.getLoadedClass());
+    }
+
+    @Test
+    public void testHitAndMissCounts() {
+        final LookupCache cache = new LookupCache(4);
+        Assert.assertNull(cache.get("java.lang.String"));
+        cache.put("java.lang.String", String.class);
+        cache.put("org.acme.Missing", null);
+        Assert.assertNotNull(cache.get("java.lang.String"));
+        Assert.assertNotNull(cache.get("org.acme.Missing"));
+        Assert.assertNull(cache.get("org.acme.Other"));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testConcurrentPutsRespectTheBound() throws Exception {
+        final LookupCache cache = new LookupCache(16);
+        final AtomicInteger maxSize = new AtomicInteger();
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t * 1000;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    cache.put("org.acme.C" + (offset + i), null);
+                    maxSize.accumulateAndGet(cache.size(), Math::max);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(16, cache.size());
+        Assert.assertTrue(maxSize.get() <= 16);
+    }
+
+    @Test
+    public void testUnusedLookupsAreEvicted() {
+        final LookupCache cache = new LookupCache(4);
+        cache.put("org.acme.A", null);
+        cache.put("org.acme.B", null);
+        cache.put("org.acme.C", null);
+        cache.put("org.acme.D", null);
+        cache.get("org.acme.A");
+        cache.get("org.acme.B");
+        cache.put("org.acme.E", null);
+        Assert.assertEquals(4, cache.size());
+        Assert.assertNotNull(cache.get("org.acme.A"));
+        Assert.assertNotNull(cache.get("org.acme.B"));
+        Assert.assertNotNull(cache.get("org.acme.E"));
+    }
+
+    @Test
+    public void testHotLookupSurvives() {
+        final LookupCache cache = new LookupCache(4);
+        cache.put("org.acme.Hot", Integer.class);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNotNull(cache.get("org.acme.Hot"));
+            cache.put("org.acme.Cold" + i, null);
+            Assert.assertTrue(cache.size() <= 4);
+        }
+        Assert.assertSame(Integer.class, cache.get("org.acme.Hot").getLoadedClass());
+    }
+
+    @Test
+    public void testAllUsedLookups() {
+        final LookupCache cache = new LookupCache(2);
+        cache.put("org.acme.A", null);
+        cache.put("org.acme.B", null);
+        cache.get("org.acme.A");
+        cache.get("org.acme.B");
+        cache.put("org.acme.C", null);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNotNull(cache.get("org.acme.C"));
+    }
+}
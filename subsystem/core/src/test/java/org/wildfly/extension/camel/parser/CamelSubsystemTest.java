@@ -0,0 +1,47 @@
+package org.wildfly.extension.camel.parser;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.subsystem.test.AbstractSubsystemBaseTest;
+import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CamelSubsystemTest extends AbstractSubsystemBaseTest {
+
+    public CamelSubsystemTest() {
+        super(CamelExtension.SUBSYSTEM_NAME, new CamelExtension());
+    }
+
+    @Override
+    protected String getSubsystemXml() throws IOException {
+        return readResource("camel-subsystem.xml");
+    }
+
+    @Test
+    public void testParseThreadPoolProfiles() throws Exception {
+        List<ModelNode> operations = parse(getSubsystemXml());
+        Assert.assertEquals(3, operations.size());
+
+        ModelNode subsystemAdd = operations.get(0);
+        Assert.assertTrue(subsystemAdd.get(ModelConstants.PARALLEL_CONTEXT_ACTIVATION).asBoolean());
+        Assert.assertEquals("java:jboss/ee/concurrency/factory/camel", subsystemAdd.get(ModelConstants.MANAGED_THREAD_FACTORY).asString());
+
+        ModelNode bulkAdd = operations.get(1);
+        Assert.assertEquals("bulk", PathAddress.pathAddress(bulkAdd.get(ModelDescriptionConstants.OP_ADDR)).getLastElement().getValue());
+        Assert.assertEquals(2, bulkAdd.get(ModelConstants.POOL_SIZE).asInt());
+        Assert.assertEquals(4, bulkAdd.get(ModelConstants.MAX_POOL_SIZE).asInt());
+        Assert.assertEquals(30, bulkAdd.get(ModelConstants.KEEP_ALIVE_TIME).asLong());
+        Assert.assertEquals(100, bulkAdd.get(ModelConstants.MAX_QUEUE_SIZE).asInt());
+        Assert.assertEquals("Abort", bulkAdd.get(ModelConstants.REJECTED_POLICY).asString());
+        Assert.assertFalse(bulkAdd.hasDefined(ModelConstants.ALLOW_CORE_THREAD_TIMEOUT));
+
+        ModelNode defaultAdd = operations.get(2);
+        Assert.assertEquals("default", PathAddress.pathAddress(defaultAdd.get(ModelDescriptionConstants.OP_ADDR)).getLastElement().getValue());
+        Assert.assertTrue(defaultAdd.get(ModelConstants.ALLOW_CORE_THREAD_TIMEOUT).asBoolean());
+        Assert.assertFalse(defaultAdd.hasDefined(ModelConstants.KEEP_ALIVE_TIME));
+    }
+}
@@ -0,0 +1,63 @@
+package org.wildfly.extension.camel.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HttpEndpointMetricsTest {
+
+    @Test
+    public void testBuckets() {
+        int previous = -1;
+        for (long micros = 0; micros < 1 << 20; micros++) {
+            final int index = HttpEndpointMetrics.bucketIndex(micros);
+            Assert.assertTrue(String.valueOf(micros), index == previous || index == previous + 1);
+            Assert.assertTrue(String.valueOf(micros), micros <= HttpEndpointMetrics.bucketUpperBound(index));
+            if (index > 0) {
+                Assert.assertTrue(String.valueOf(micros), micros > HttpEndpointMetrics.bucketUpperBound(index - 1));
+            }
+            previous = index;
+        }
+        Assert.assertEquals(HttpEndpointMetrics.BUCKET_COUNT - 1, HttpEndpointMetrics.bucketIndex(Long.MAX_VALUE));
+        Assert.assertEquals(0, HttpEndpointMetrics.bucketIndex(-1));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final HttpEndpointMetrics metrics = new HttpEndpointMetrics();
+        Assert.assertEquals(0, metrics.getLatencyPercentileMicros(99));
+        for (int i = 1; i <= 100; i++) {
+            metrics.requestStarted();
+            metrics.requestCompleted(TimeUnit.MILLISECONDS.toNanos(i), i == 100 ? 500 : 200);
+        }
+        Assert.assertEquals(100, metrics.getRequestCount());
+        Assert.assertEquals(1, metrics.getErrorCount());
+        Assert.assertEquals(0, metrics.getInFlightCount());
+        Assert.assertEquals(50500, metrics.getMeanLatencyMicros());
+        Assert.assertEquals(100000, metrics.getMaxLatencyMicros());
+        assertWithin(50000, metrics.getLatencyPercentileMicros(50));
+        assertWithin(90000, metrics.getLatencyPercentileMicros(90));
+        assertWithin(99000, metrics.getLatencyPercentileMicros(99));
+        Assert.assertEquals(100000, metrics.getLatencyPercentileMicros(100));
+    }
+
+    @Test
+    public void testUntimed() {
+        final HttpEndpointMetrics metrics = new HttpEndpointMetrics();
+        metrics.requestStarted();
+        metrics.requestCompleted(-1, 200);
+        metrics.requestStarted();
+        metrics.requestCompleted(TimeUnit.MILLISECONDS.toNanos(2), 503);
+        Assert.assertEquals(2, metrics.getRequestCount());
+        Assert.assertEquals(1, metrics.getErrorCount());
+        Assert.assertEquals(0, metrics.getInFlightCount());
+        Assert.assertEquals(2000, metrics.getMeanLatencyMicros());
+        Assert.assertEquals(2000, metrics.getMaxLatencyMicros());
+    }
+
+    static void assertWithin(long expected, long actual) {
+        Assert.assertTrue(actual + " < " + expected, actual >= expected);
+        Assert.assertTrue(actual + " > " + expected + " + 12.5%", actual <= expected + expected / HttpEndpointMetrics.SUB_BUCKETS);
+    }
+}
@@ -26,4 +26,18 @@ public class UrlPatternTest {
         assertPath("///foo/*", "///foo", "/*");
         assertPath("///foo/*", "///foo/bar", "");
     }
+
+    @Test
+    public void testGlobSegments() {
+        assertPath("/*.json", "/foo.json", "");
+        assertPath("/*.json", "/foo.xml", null);
+        assertPath("/foo*/*", "/foobar", "/*");
+        assertPath("/foo*/*", "/fo", null);
+        assertPath("/f*o*o/*", "/foo", "/*");
+        assertPath("/f*o*o/*", "/fxoyo", "/*");
+        assertPath("/f*o*o/*", "/fo", null);
+        assertPath("/**/bar", "/foo", "/bar");
+        assertPath("/a*a", "/a", null);
+        assertPath("/a*a", "/aa", "");
+    }
 }
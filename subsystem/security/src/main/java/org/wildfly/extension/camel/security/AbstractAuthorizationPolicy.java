@@ -20,18 +20,30 @@
 
 package org.wildfly.extension.camel.security;
 
+import static org.wildfly.extension.camel.CamelLogger.LOGGER;
+
 import java.security.Principal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.security.auth.Subject;
 import javax.security.auth.login.LoginContext;
 import javax.security.auth.login.LoginException;
 
+import org.apache.camel.AsyncCallback;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.apache.camel.ThreadPoolRejectedPolicy;
 import org.apache.camel.model.ProcessorDefinition;
+import org.apache.camel.processor.DelegateAsyncProcessor;
 import org.apache.camel.spi.AuthorizationPolicy;
+import org.apache.camel.spi.ExecutorServiceManager;
 import org.apache.camel.spi.RouteContext;
+import org.apache.camel.spi.ThreadPoolProfile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.wildfly.camel.utils.IllegalStateAssertion;
+import org.wildfly.extension.camel.security.IdentityVerifier.Login;
+import org.wildfly.extension.camel.security.JaasIdentityVerifier.JaasLogin;
 
 
 /**
@@ -42,56 +54,319 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
  */
 public abstract class AbstractAuthorizationPolicy implements AuthorizationPolicy {
 
+    /** Whether a subclass authorizes the {@link LoginContext}, which a cached subject cannot provide */
+    private final boolean loginContextAuthorization = overridesLoginContextAuthorization(getClass());
+    private volatile AuthenticationCache authenticationCache;
+    private volatile ExecutorService authenticationExecutor;
+    private volatile IdentityVerifier identityVerifier;
+
     @Override
     public void beforeWrap(RouteContext routeContext, ProcessorDefinition<?> definition) {
     }
 
     @Override
     public Processor wrap(final RouteContext routeContext, final Processor processor) {
-        return new Processor() {
-            @Override
-            public void process(Exchange exchange) throws Exception {
-                Subject subject = exchange.getIn().getHeader(Exchange.AUTHENTICATION, Subject.class);
-                if (subject == null) {
-                    throw new SecurityException("Cannot obtain authentication subject from exchange: " + exchange);
+        return new AuthorizationProcessor(processor);
+    }
+
+    /**
+     * Caches the successfully authenticated subjects so that repeated requests with the same credentials do not
+     * perform a login each.
+     *
+     * @throws IllegalStateException if this policy does not support an authentication cache
+     * @see #isAuthenticationCacheSupported()
+     */
+    public AbstractAuthorizationPolicy authenticationCache(AuthenticationCache authenticationCache) {
+        setAuthenticationCache(authenticationCache);
+        return this;
+    }
+
+    // for use in spring xml
+    public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+        IllegalStateAssertion.assertTrue(authenticationCache == null || isAuthenticationCacheSupported(),
+                "Authentication cache not supported by: " + getClass().getName());
+        this.authenticationCache = authenticationCache;
+    }
+
+    public AuthenticationCache getAuthenticationCache() {
+        return authenticationCache;
+    }
+
+    /**
+     * Performs the logins on the given bounded executor so that the threads calling into a secured route, e.g. the IO
+     * threads of asynchronous consumers, are not blocked by a slow identity store. The route continues on a thread
+     * pool of the Camel context, so the executor is only busy for the login. Exchanges authorized through the
+     * {@link AuthenticationCache} do not need the executor.
+     *
+     * @throws IllegalStateException if this policy needs the login on the thread that processes the exchange
+     * @see #isLoginRequiredWhileProcessing()
+     */
+    public AbstractAuthorizationPolicy authenticationExecutor(ExecutorService authenticationExecutor) {
+        setAuthenticationExecutor(authenticationExecutor);
+        return this;
+    }
+
+    // for use in spring xml
+    public void setAuthenticationExecutor(ExecutorService authenticationExecutor) {
+        IllegalStateAssertion.assertTrue(authenticationExecutor == null || !isLoginRequiredWhileProcessing(),
+                "Authentication executor not supported by: " + getClass().getName());
+        this.authenticationExecutor = authenticationExecutor;
+    }
+
+    public ExecutorService getAuthenticationExecutor() {
+        return authenticationExecutor;
+    }
+
+    /**
+     * Verifies the credentials with the given verifier instead of the JAAS login context returned by
+     * {@link #getLoginContext(String, String, char[])}.
+     *
+     * @throws IllegalStateException if this policy needs its own login on the thread that processes the exchange
+     * @see #isLoginRequiredWhileProcessing()
+     */
+    public AbstractAuthorizationPolicy identityVerifier(IdentityVerifier identityVerifier) {
+        setIdentityVerifier(identityVerifier);
+        return this;
+    }
+
+    // for use in spring xml
+    public void setIdentityVerifier(IdentityVerifier identityVerifier) {
+        IllegalStateAssertion.assertTrue(identityVerifier == null || !isLoginRequiredWhileProcessing(),
+                "Identity verifier not supported by: " + getClass().getName());
+        this.identityVerifier = identityVerifier;
+    }
+
+    public IdentityVerifier getIdentityVerifier() {
+        return identityVerifier;
+    }
+
+    /**
+     * @return {@code true} if every exchange needs its own login that stays active on the thread that processes the
+     *         exchange, e.g. because the login establishes the identity of the calling thread
+     */
+    protected boolean isLoginRequiredWhileProcessing() {
+        return false;
+    }
+
+    /**
+     * @return {@code false} if the login is required while processing or if the policy overrides
+     *         {@link #authorize(LoginContext)}, which cannot be called for a cached subject
+     */
+    protected boolean isAuthenticationCacheSupported() {
+        return !isLoginRequiredWhileProcessing() && !loginContextAuthorization;
+    }
+
+    protected void authorize(LoginContext context) throws LoginException {
+    }
+
+    /**
+     * Authorizes the given authenticated subject, which may come from the {@link AuthenticationCache}.
+     */
+    protected void authorize(AuthenticatedSubject subject) throws LoginException {
+    }
+
+    protected abstract LoginContext getLoginContext(String domain, String username, char[] password) throws LoginException;
+
+    private final class AuthorizationProcessor extends DelegateAsyncProcessor {
+
+        private volatile ExecutorService continuationExecutor;
+
+        AuthorizationProcessor(Processor processor) {
+            super(processor);
+        }
+
+        @Override
+        public boolean process(final Exchange exchange, final AsyncCallback callback) {
+            final Credentials credentials;
+            final AuthenticationCache cache = isAuthenticationCacheSupported() ? authenticationCache : null;
+            final AuthenticatedSubject cached;
+            try {
+                credentials = Credentials.of(exchange);
+                cached = cache != null ? cache.get(credentials.domain, credentials.username, credentials.password) : null;
+                if (cached != null) {
+                    authorize(cached);
                 }
-                String domain = null;
-                String username = null;
-                char[] password = null;
-                for (Principal principal : subject.getPrincipals()) {
-                    if (principal instanceof UsernamePasswordPrincipal) {
-                        username = principal.getName();
-                        password = ((UsernamePasswordPrincipal) principal).getPassword();
-                    } else if (principal instanceof DomainPrincipal) {
-                        domain = principal.getName();
-                    } else if (principal instanceof UsernamePasswordAuthenticationToken) {
-                        username = principal.getName();
-                        Object credentials = ((UsernamePasswordAuthenticationToken) principal).getCredentials();
-                        if (credentials instanceof String) {
-                            password = ((String) credentials).toCharArray();
-                        } else if (credentials instanceof char[]) {
-                            password = (char[]) credentials;
-                        }
+            } catch (Exception ex) {
+                exchange.setException(ex);
+                callback.done(true);
+                return true;
+            }
+            if (cached != null) {
+                return processor.process(exchange, callback);
+            }
+
+            ExecutorService executor = authenticationExecutor;
+            if (executor == null) {
+                return processAuthenticated(exchange, callback, credentials, cache);
+            }
+
+            try {
+                executor.execute(() -> {
+                    Exception failure = null;
+                    try {
+                        authenticate(credentials, cache);
+                    } catch (Exception ex) {
+                        failure = ex;
                     }
-                }
-                if (username == null || password == null) {
-                    throw new SecurityException("Cannot obtain credentials from exchange: " + exchange);
-                }
+                    continueRoute(exchange, callback, failure);
+                });
+            } catch (RejectedExecutionException ex) {
+                exchange.setException(ex);
+                callback.done(true);
+                return true;
+            }
+            return false;
+        }
+
+        // Keeps the login active until the exchange is done, like the synchronous processing did
+        private boolean processAuthenticated(Exchange exchange, AsyncCallback callback, Credentials credentials, AuthenticationCache cache) {
+            Login login;
+            try {
+                login = login(credentials);
+            } catch (Exception ex) {
+                exchange.setException(ex);
+                callback.done(true);
+                return true;
+            }
+            try {
+                authorizeAndCache(login, credentials, cache);
+            } catch (Exception ex) {
+                logout(login, credentials);
+                exchange.setException(ex);
+                callback.done(true);
+                return true;
+            }
+            return processor.process(exchange, doneSync -> {
+                logout(login, credentials);
+                callback.done(doneSync);
+            });
+        }
 
-                LoginContext context = getLoginContext(domain, username, password);
-                context.login();
-                try {
-                    authorize(context);
-                    processor.process(exchange);
-                } finally {
-                    context.logout();
+        private void logout(Login login, Credentials credentials) {
+            try {
+                login.logout();
+            } catch (LoginException ex) {
+                LOGGER.warn("Cannot logout: " + credentials.username, ex);
+            }
+        }
+
+        // Hands the exchange from the authentication executor to a thread pool of the Camel context
+        private void continueRoute(Exchange exchange, AsyncCallback callback, Exception failure) {
+            try {
+                getContinuationExecutor(exchange).execute(() -> {
+                    if (failure != null) {
+                        exchange.setException(failure);
+                        callback.done(false);
+                    } else {
+                        processor.process(exchange, doneSync -> callback.done(false));
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                exchange.setException(failure != null ? failure : ex);
+                callback.done(false);
+            }
+        }
+
+        private ExecutorService getContinuationExecutor(Exchange exchange) {
+            // The pool is shut down together with the Camel context and recreated after a restart
+            ExecutorService result = continuationExecutor;
+            if (result == null || result.isShutdown()) {
+                synchronized (this) {
+                    result = continuationExecutor;
+                    if (result == null || result.isShutdown()) {
+                        // Abort instead of the default CallerRuns so that the route never runs on the login thread
+                        ExecutorServiceManager manager = exchange.getContext().getExecutorServiceManager();
+                        ThreadPoolProfile profile = manager.getDefaultThreadPoolProfile().clone();
+                        profile.setId("AuthorizationPolicy");
+                        profile.setRejectedPolicy(ThreadPoolRejectedPolicy.Abort);
+                        result = manager.newThreadPool(this, "AuthorizationPolicy", profile);
+                        continuationExecutor = result;
+                    }
                 }
             }
-        };
+            return result;
+        }
+
+        private void authenticate(Credentials credentials, AuthenticationCache cache) throws LoginException {
+            Login login = login(credentials);
+            try {
+                authorizeAndCache(login, credentials, cache);
+            } finally {
+                login.logout();
+            }
+        }
+
+        private Login login(Credentials credentials) throws LoginException {
+            IdentityVerifier verifier = identityVerifier;
+            if (verifier == null) {
+                return JaasIdentityVerifier.login(getLoginContext(credentials.domain, credentials.username, credentials.password));
+            }
+            return verifier.login(credentials.domain, credentials.username, credentials.password);
+        }
+
+        private void authorizeAndCache(Login login, Credentials credentials, AuthenticationCache cache) throws LoginException {
+            if (login instanceof JaasLogin) {
+                authorize(((JaasLogin) login).getLoginContext());
+            }
+            AuthenticatedSubject authenticated = AuthenticatedSubject.of(login.getSubject());
+            authorize(authenticated);
+            if (cache != null) {
+                cache.put(credentials.domain, credentials.username, credentials.password, authenticated);
+            }
+        }
     }
 
-    protected void authorize(LoginContext context) throws LoginException {
+    private static boolean overridesLoginContextAuthorization(Class<?> type) {
+        for (Class<?> clazz = type; clazz != AbstractAuthorizationPolicy.class; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod("authorize", LoginContext.class);
+                return true;
+            } catch (NoSuchMethodException ex) {
+                // continue with the superclass
+            }
+        }
+        return false;
     }
 
-    protected abstract LoginContext getLoginContext(String domain, String username, char[] password) throws LoginException;
+    private static final class Credentials {
+        private final String domain;
+        private final String username;
+        private final char[] password;
+
+        private Credentials(String domain, String username, char[] password) {
+            this.domain = domain;
+            this.username = username;
+            this.password = password;
+        }
+
+        static Credentials of(Exchange exchange) {
+            Subject subject = exchange.getIn().getHeader(Exchange.AUTHENTICATION, Subject.class);
+            if (subject == null) {
+                throw new SecurityException("Cannot obtain authentication subject from exchange: " + exchange);
+            }
+            String domain = null;
+            String username = null;
+            char[] password = null;
+            for (Principal principal : subject.getPrincipals()) {
+                if (principal instanceof UsernamePasswordPrincipal) {
+                    username = principal.getName();
+                    password = ((UsernamePasswordPrincipal) principal).getPassword();
+                } else if (principal instanceof DomainPrincipal) {
+                    domain = principal.getName();
+                } else if (principal instanceof UsernamePasswordAuthenticationToken) {
+                    username = principal.getName();
+                    Object credentials = ((UsernamePasswordAuthenticationToken) principal).getCredentials();
+                    if (credentials instanceof String) {
+                        password = ((String) credentials).toCharArray();
+                    } else if (credentials instanceof char[]) {
+                        password = (char[]) credentials;
+                    }
+                }
+            }
+            if (username == null || password == null) {
+                throw new SecurityException("Cannot obtain credentials from exchange: " + exchange);
+            }
+            return new Credentials(domain, username, password);
+        }
+    }
 }
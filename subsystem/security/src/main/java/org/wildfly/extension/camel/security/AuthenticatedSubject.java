@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.security;
+
+import java.security.Principal;
+import java.security.acl.Group;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.security.auth.Subject;
+
+import org.wildfly.camel.utils.IllegalArgumentAssertion;
+
+/**
+ * A read-only copy of the principals of an authenticated {@link Subject} together with the names of its roles, which
+ * are extracted once from the members of the {@value #ROLES_GROUP} group principals. The credentials of the subject
+ * are not copied, so that they are not retained by the {@link AuthenticationCache}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public final class AuthenticatedSubject {
+
+    static final String ROLES_GROUP = "Roles";
+
+    private final Subject subject;
+    private final Set<String> roles;
+
+    private AuthenticatedSubject(Subject subject, Set<String> roles) {
+        this.subject = subject;
+        this.roles = roles;
+    }
+
+    /**
+     * @param subject the subject of a successful login
+     * @return a snapshot of the principals of the given subject that remains valid after the logout
+     */
+    public static AuthenticatedSubject of(Subject subject) {
+        IllegalArgumentAssertion.assertNotNull(subject, "subject");
+        Set<String> roles = new HashSet<>();
+        for (Group group : subject.getPrincipals(Group.class)) {
+            if (ROLES_GROUP.equals(group.getName())) {
+                addMembers(group, roles);
+            }
+        }
+        Subject copy = new Subject(true, subject.getPrincipals(), Collections.emptySet(), Collections.emptySet());
+        return new AuthenticatedSubject(copy, Collections.unmodifiableSet(roles));
+    }
+
+    // Nested groups count as roles and grant their members too, like Group.isMember() does
+    private static void addMembers(Group group, Set<String> roles) {
+        Enumeration<? extends Principal> members = group.members();
+        while (members.hasMoreElements()) {
+            Principal member = members.nextElement();
+            if (roles.add(member.getName()) && member instanceof Group) {
+                addMembers((Group) member, roles);
+            }
+        }
+    }
+
+    public Subject getSubject() {
+        return subject;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.security;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.wildfly.camel.utils.IllegalArgumentAssertion;
+
+/**
+ * A bounded cache of the subjects successfully authenticated by an {@link AbstractAuthorizationPolicy}, keyed by
+ * security domain, username and a salted hash of the password. Entries expire after a fixed time to live; failed
+ * logins are never cached.
+ *
+ * The cached subjects are read-only copies taken before the logout; they carry the principals and the extracted roles
+ * of the login but no credentials.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public final class AuthenticationCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final byte[] salt = new byte[16];
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries the maximum number of cached subjects
+     * @param ttl how long a subject stays cached after its login
+     * @param unit the unit of the given time to live
+     */
+    public AuthenticationCache(int maxEntries, long ttl, TimeUnit unit) {
+        IllegalArgumentAssertion.assertTrue(maxEntries > 0, "maxEntries must be greater than 0");
+        IllegalArgumentAssertion.assertTrue(ttl > 0, "ttl must be greater than 0");
+        IllegalArgumentAssertion.assertNotNull(unit, "unit");
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * @return the cached subject or {@code null} if there is none or it has expired
+     */
+    AuthenticatedSubject get(String domain, String username, char[] password) {
+        Key key = new Key(domain, username, hash(password));
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            hits.increment();
+            return entry.subject;
+        }
+        if (entry != null && entries.remove(key, entry)) {
+            evictions.increment();
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(String domain, String username, char[] password, AuthenticatedSubject subject) {
+        long now = System.nanoTime();
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(new Key(domain, username, hash(password)), new Entry(subject, now + ttlNanos));
+    }
+
+    /**
+     * Removes the subjects of the given user regardless of the password they were authenticated with.
+     *
+     * @param domain the security domain or {@code null} for the default domain
+     * @param username the user to invalidate
+     */
+    public void invalidate(String domain, String username) {
+        entries.keySet().removeIf(key -> Objects.equals(key.domain, domain) && key.username.equals(username));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Removes the expired entries and, if the cache is still full, the entry closest to expiry.
+     */
+    private void evict(long now) {
+        Key oldestKey = null;
+        long oldestExpiry = 0;
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Key, Entry> en = it.next();
+            long expiresAt = en.getValue().expiresAt;
+            if (expiresAt - now <= 0) {
+                it.remove();
+                evictions.increment();
+            } else if (oldestKey == null || expiresAt - oldestExpiry < 0) {
+                oldestKey = en.getKey();
+                oldestExpiry = expiresAt;
+            }
+        }
+        if (entries.size() >= maxEntries && oldestKey != null && entries.remove(oldestKey) != null) {
+            evictions.increment();
+        }
+    }
+
+    private byte[] hash(char[] password) {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            digest.update(bytes.duplicate());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            if (bytes.hasArray()) {
+                Arrays.fill(bytes.array(), (byte) 0);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String domain;
+        private final String username;
+        private final byte[] passwordHash;
+        private final int hash;
+
+        Key(String domain, String username, byte[] passwordHash) {
+            this.domain = domain;
+            this.username = username;
+            this.passwordHash = passwordHash;
+            this.hash = Objects.hash(domain, username) * 31 + Arrays.hashCode(passwordHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(domain, other.domain) && username.equals(other.username) && MessageDigest.isEqual(passwordHash, other.passwordHash);
+        }
+    }
+
+    private static final class Entry {
+        private final AuthenticatedSubject subject;
+        private final long expiresAt;
+
+        Entry(AuthenticatedSubject subject, long expiresAt) {
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
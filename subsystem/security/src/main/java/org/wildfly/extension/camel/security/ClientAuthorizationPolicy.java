@@ -38,4 +38,10 @@ public class ClientAuthorizationPolicy extends AbstractAuthorizationPolicy {
         LoginContextBuilder builder = new LoginContextBuilder(Type.CLIENT).domain(domain);
         return builder.username(username).password(password).build();
     }
+
+    // The client login establishes the caller identity of the current thread for the duration of the exchange
+    @Override
+    protected boolean isLoginRequiredWhileProcessing() {
+        return true;
+    }
 }
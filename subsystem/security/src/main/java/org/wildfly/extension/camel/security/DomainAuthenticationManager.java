@@ -22,6 +22,8 @@
 
 package org.wildfly.extension.camel.security;
 
+import static org.wildfly.extension.camel.CamelLogger.LOGGER;
+
 import java.security.Principal;
 import java.security.acl.Group;
 import java.util.Collection;
@@ -42,53 +44,71 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.wildfly.extension.camel.security.IdentityVerifier.Login;
 import org.wildfly.extension.camel.security.LoginContextBuilder.Type;
 
 public class DomainAuthenticationManager implements AuthenticationManager {
 
+    private volatile IdentityVerifier identityVerifier;
+
+    // for use in spring xml, replaces the JAAS login context of the security domain
+    public void setIdentityVerifier(IdentityVerifier identityVerifier) {
+        this.identityVerifier = identityVerifier;
+    }
+
+    public IdentityVerifier getIdentityVerifier() {
+        return identityVerifier;
+    }
+
     @Override
     public Authentication authenticate(Authentication auth) throws AuthenticationException {
 
         if (!(auth instanceof UsernamePasswordAuthenticationToken))
             throw new BadCredentialsException("Unsupported authentication type: " + auth);
 
-        LoginContextBuilder builder = new LoginContextBuilder(Type.AUTHENTICATION);
         UsernamePasswordAuthenticationToken authToken = (UsernamePasswordAuthenticationToken) auth;
 
         Object details = auth.getDetails();
-        builder.domain(details instanceof String ? (String) details : "other");
+        String domain = details instanceof String ? (String) details : "other";
 
         Object principal = authToken.getPrincipal();
-        if (principal instanceof String) {
-            builder.username((String) principal);
-        } else {
+        if (!(principal instanceof String)) {
             throw new UsernameNotFoundException("Unsupported principal: " + principal);
         }
 
         Object credentials = authToken.getCredentials();
-        if (credentials instanceof char[]) {
-            builder.password((char[]) credentials);
-        } else {
+        if (!(credentials instanceof char[])) {
             throw new BadCredentialsException("Unsupported credentials: " + credentials);
         }
 
-        LoginContext context;
-        try {
-            context = builder.build();
-        } catch (LoginException ex) {
-            throw new AuthenticationServiceException("Cannot build login context", ex);
-        }
-        try {
-            context.login();
-        } catch (LoginException ex) {
-            throw new AuthenticationServiceException("Password invalid/Password required", ex);
+        Login login;
+        IdentityVerifier verifier = identityVerifier;
+        if (verifier == null) {
+            LoginContext context;
+            try {
+                LoginContextBuilder builder = new LoginContextBuilder(Type.AUTHENTICATION).domain(domain);
+                context = builder.username((String) principal).password((char[]) credentials).build();
+            } catch (LoginException ex) {
+                throw new AuthenticationServiceException("Cannot build login context", ex);
+            }
+            try {
+                login = JaasIdentityVerifier.login(context);
+            } catch (LoginException ex) {
+                throw new AuthenticationServiceException("Password invalid/Password required", ex);
+            }
+        } else {
+            try {
+                login = verifier.login(domain, (String) principal, (char[]) credentials);
+            } catch (LoginException ex) {
+                throw new AuthenticationServiceException("Password invalid/Password required", ex);
+            }
         }
 
         Collection<GrantedAuthority> authorities = new HashSet<>();
-        Set<Group> groups = context.getSubject().getPrincipals(Group.class);
-        if (groups != null) {
+        try {
+            Set<Group> groups = login.getSubject().getPrincipals(Group.class);
             for (Group group : groups) {
-                if ("Roles".equals(group.getName())) {
+                if (AuthenticatedSubject.ROLES_GROUP.equals(group.getName())) {
                     Enumeration<? extends Principal> members = group.members();
                     while (members.hasMoreElements()) {
                         Principal member = members.nextElement();
@@ -96,6 +116,12 @@ public class DomainAuthenticationManager implements AuthenticationManager {
                     }
                 }
             }
+        } finally {
+            try {
+                login.logout();
+            } catch (LoginException ex) {
+                LOGGER.warn("Cannot logout: " + principal, ex);
+            }
         }
 
         AbstractAuthenticationToken result = new UsernamePasswordAuthenticationToken(principal, credentials, authorities);
@@ -20,14 +20,12 @@
 
 package org.wildfly.extension.camel.security;
 
-import java.security.acl.Group;
 import java.util.HashSet;
 import java.util.Set;
 
 import javax.security.auth.login.LoginContext;
 import javax.security.auth.login.LoginException;
 
-import org.jboss.security.SimplePrincipal;
 import org.wildfly.extension.camel.security.LoginContextBuilder.Type;
 
 
@@ -40,17 +38,20 @@ import org.wildfly.extension.camel.security.LoginContextBuilder.Type;
 public class DomainAuthorizationPolicy extends AbstractAuthorizationPolicy {
 
     private final Set<String> requiredRoles = new HashSet<>();
+    private volatile RequiredRoles compiledRoles = RequiredRoles.NONE;
 
-    public DomainAuthorizationPolicy roles(String... roles) {
+    public synchronized DomainAuthorizationPolicy roles(String... roles) {
         for (String role : roles) {
             this.requiredRoles.add(role);
         }
+        compiledRoles = RequiredRoles.of(requiredRoles);
         return this;
     }
 
     // for use in spring xml
-    public void setRole(String role) {
+    public synchronized void setRole(String role) {
         this.requiredRoles.add(role);
+        compiledRoles = RequiredRoles.of(requiredRoles);
     }
 
     protected LoginContext getLoginContext(String domain, String username, char[] password) throws LoginException {
@@ -59,21 +60,9 @@ public class DomainAuthorizationPolicy extends AbstractAuthorizationPolicy {
     }
 
     @Override
-    protected void authorize(LoginContext context) throws LoginException {
-        HashSet<String> required = new HashSet<>(requiredRoles);
-        Set<Group> groups = context.getSubject().getPrincipals(Group.class);
-        if (groups != null) {
-            for (Group group : groups) {
-                if ("Roles".equals(group.getName())) {
-                    for (String role : requiredRoles) {
-                        if (group.isMember(new SimplePrincipal(role))) {
-                            required.remove(role);
-                        }
-                    }
-                }
-            }
-        }
-        if (!required.isEmpty())
-            throw new LoginException("User does not have required roles: " + required);
+    protected void authorize(AuthenticatedSubject subject) throws LoginException {
+        RequiredRoles required = compiledRoles;
+        if (!required.isGrantedBy(subject.getRoles()))
+            throw new LoginException("User does not have required roles: " + required.getMissing(subject.getRoles()));
     }
 }
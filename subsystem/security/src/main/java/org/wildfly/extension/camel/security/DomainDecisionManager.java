@@ -35,20 +35,19 @@ import org.springframework.security.core.GrantedAuthority;
 public class DomainDecisionManager implements AccessDecisionManager {
 
     private final Set<String> requiredRoles = new HashSet<>();
+    private volatile RequiredRoles compiledRoles = RequiredRoles.NONE;
 
-    public void setRole(String role) {
+    public synchronized void setRole(String role) {
         this.requiredRoles.add(role);
+        compiledRoles = RequiredRoles.of(requiredRoles);
     }
 
     @Override
     public void decide(Authentication auth, Object object, Collection<ConfigAttribute> configs) {
-        HashSet<String> required = new HashSet<>(requiredRoles);
+        RequiredRoles required = compiledRoles;
         Collection<? extends GrantedAuthority> authorities = auth.getAuthorities();
-        for (GrantedAuthority authority : authorities) {
-            required.remove(authority.getAuthority());
-        }
-        if (!required.isEmpty())
-            throw new AccessDeniedException("User does not have required roles: " + required);
+        if (!required.isGrantedBy(authorities))
+            throw new AccessDeniedException("User does not have required roles: " + required.getMissing(authorities));
     }
 
     @Override
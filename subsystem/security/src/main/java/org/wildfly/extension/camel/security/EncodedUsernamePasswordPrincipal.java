@@ -20,7 +20,13 @@
 
 package org.wildfly.extension.camel.security;
 
-import org.jboss.crypto.CryptoUtil;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
 import org.wildfly.camel.utils.IllegalArgumentAssertion;
 
 /**
@@ -31,6 +37,16 @@ import org.wildfly.camel.utils.IllegalArgumentAssertion;
  */
 public class EncodedUsernamePasswordPrincipal extends UsernamePasswordPrincipal {
 
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final MessageDigest MD5;
+    static {
+        try {
+            MD5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     public EncodedUsernamePasswordPrincipal(String username, char[] password) {
         this("ApplicationRealm", username, password);
     }
@@ -39,12 +55,56 @@ public class EncodedUsernamePasswordPrincipal extends UsernamePasswordPrincipal
         super(username, encryptPassword(realm, username, password));
     }
 
+    /**
+     * Computes the hex encoded MD5 hash of {@code username:realm:password} like
+     * {@code CryptoUtil.createPasswordHash("MD5", "hex", null, null, combined)} does, but without materializing the
+     * password as a {@link String}. The intermediate buffers are cleared before returning.
+     */
     public static char[] encryptPassword(String realm, String username, char[] password) {
         IllegalArgumentAssertion.assertNotNull(realm, "realm");
         IllegalArgumentAssertion.assertNotNull(username, "username");
         IllegalArgumentAssertion.assertNotNull(password, "password");
-        String compined = username + ":" + realm + ":" + new String(password);
-        return CryptoUtil.createPasswordHash("MD5", "hex", null, null, compined).toCharArray();
+        char[] combined = new char[username.length() + realm.length() + password.length + 2];
+        int pos = 0;
+        username.getChars(0, username.length(), combined, pos);
+        pos += username.length();
+        combined[pos++] = ':';
+        realm.getChars(0, realm.length(), combined, pos);
+        pos += realm.length();
+        combined[pos++] = ':';
+        System.arraycopy(password, 0, combined, pos, password.length);
+
+        // Same encoding as String.getBytes(), which CryptoUtil uses when no charset is given
+        ByteBuffer bytes = Charset.defaultCharset().encode(CharBuffer.wrap(combined));
+        try {
+            MessageDigest digest = newDigest();
+            digest.update(bytes);
+            byte[] hash = digest.digest();
+            char[] result = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                result[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+                result[2 * i + 1] = HEX[hash[i] & 0xf];
+            }
+            return result;
+        } finally {
+            Arrays.fill(combined, '\0');
+            if (bytes.hasArray()) {
+                Arrays.fill(bytes.array(), (byte) 0);
+            }
+        }
+    }
+
+    // Cloning a prototype avoids the provider lookup of MessageDigest.getInstance()
+    private static MessageDigest newDigest() {
+        try {
+            return (MessageDigest) MD5.clone();
+        } catch (CloneNotSupportedException ex) {
+            try {
+                return MessageDigest.getInstance(MD5.getAlgorithm());
+            } catch (NoSuchAlgorithmException nsae) {
+                throw new IllegalStateException(nsae);
+            }
+        }
     }
 
 }
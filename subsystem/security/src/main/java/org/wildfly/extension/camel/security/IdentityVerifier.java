@@ -0,0 +1,57 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.security;
+
+import javax.security.auth.Subject;
+import javax.security.auth.login.LoginException;
+
+/**
+ * Verifies the credentials of a user against an identity store.
+ *
+ * The default implementation is the {@link JaasIdentityVerifier}; the {@link InMemoryIdentityVerifier} allows to test
+ * and measure the security path without a security domain.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public interface IdentityVerifier {
+
+    /**
+     * @param domain the security domain or {@code null} for the default domain
+     * @param username the name of the user
+     * @param password the password of the user
+     * @return the active login of the given user
+     * @throws LoginException if the credentials are invalid or cannot be verified
+     */
+    Login login(String domain, String username, char[] password) throws LoginException;
+
+    /**
+     * A successful login that stays active until {@link #logout()} is called.
+     */
+    interface Login {
+
+        /**
+         * @return the authenticated subject carrying the principals of the user, e.g. the {@code Roles} group
+         */
+        Subject getSubject();
+
+        void logout() throws LoginException;
+    }
+}
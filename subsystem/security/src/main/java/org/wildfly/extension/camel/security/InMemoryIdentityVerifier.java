@@ -0,0 +1,137 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.security;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.security.auth.Subject;
+import javax.security.auth.login.FailedLoginException;
+import javax.security.auth.login.LoginException;
+
+import org.jboss.security.SimpleGroup;
+import org.jboss.security.SimplePrincipal;
+import org.wildfly.camel.utils.IllegalArgumentAssertion;
+
+/**
+ * An {@link IdentityVerifier} backed by users registered in memory, e.g. for tests and benchmarks of secured routes
+ * without a security domain. Only salted hashes of the passwords are kept.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public final class InMemoryIdentityVerifier implements IdentityVerifier {
+
+    private static final String DEFAULT_DOMAIN = "other";
+
+    private final byte[] salt = new byte[16];
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+
+    public InMemoryIdentityVerifier() {
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * @param domain the security domain or {@code null} for the default domain
+     * @param username the name of the user
+     * @param password the password of the user
+     * @param roles the roles granted to the user
+     * @return this verifier
+     */
+    public InMemoryIdentityVerifier addUser(String domain, String username, char[] password, String... roles) {
+        IllegalArgumentAssertion.assertNotNull(username, "username");
+        IllegalArgumentAssertion.assertNotNull(password, "password");
+        users.put(key(domain, username), new User(username, hash(password), roles.clone()));
+        return this;
+    }
+
+    public InMemoryIdentityVerifier removeUser(String domain, String username) {
+        users.remove(key(domain, username));
+        return this;
+    }
+
+    @Override
+    public Login login(String domain, String username, char[] password) throws LoginException {
+        IllegalArgumentAssertion.assertNotNull(username, "username");
+        IllegalArgumentAssertion.assertNotNull(password, "password");
+        User user = users.get(key(domain, username));
+        if (user == null || !MessageDigest.isEqual(user.passwordHash, hash(password))) {
+            throw new FailedLoginException("Password invalid/Password required");
+        }
+        Subject subject = new Subject();
+        subject.getPrincipals().add(new SimplePrincipal(user.username));
+        SimpleGroup roles = new SimpleGroup(AuthenticatedSubject.ROLES_GROUP);
+        for (String role : user.roles) {
+            roles.addMember(new SimplePrincipal(role));
+        }
+        subject.getPrincipals().add(roles);
+        return new Login() {
+            @Override
+            public Subject getSubject() {
+                return subject;
+            }
+
+            @Override
+            public void logout() {
+                subject.getPrincipals().clear();
+            }
+        };
+    }
+
+    private static String key(String domain, String username) {
+        return (domain != null ? domain : DEFAULT_DOMAIN) + ":" + username;
+    }
+
+    private byte[] hash(char[] password) {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            digest.update(bytes.duplicate());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            if (bytes.hasArray()) {
+                Arrays.fill(bytes.array(), (byte) 0);
+            }
+        }
+    }
+
+    private static final class User {
+        private final String username;
+        private final byte[] passwordHash;
+        private final String[] roles;
+
+        User(String username, byte[] passwordHash, String[] roles) {
+            this.username = username;
+            this.passwordHash = passwordHash;
+            this.roles = Objects.requireNonNull(roles);
+        }
+    }
+}
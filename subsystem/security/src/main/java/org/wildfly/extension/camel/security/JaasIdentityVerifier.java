@@ -0,0 +1,81 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.security;
+
+import javax.security.auth.Subject;
+import javax.security.auth.login.LoginContext;
+import javax.security.auth.login.LoginException;
+
+import org.wildfly.camel.utils.IllegalArgumentAssertion;
+import org.wildfly.extension.camel.security.LoginContextBuilder.Type;
+
+/**
+ * Verifies credentials with a JAAS {@link LoginContext} built by the {@link LoginContextBuilder}, which uses the
+ * security domain name as the configuration name.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public final class JaasIdentityVerifier implements IdentityVerifier {
+
+    private final Type type;
+
+    public JaasIdentityVerifier(Type type) {
+        IllegalArgumentAssertion.assertNotNull(type, "type");
+        this.type = type;
+    }
+
+    @Override
+    public JaasLogin login(String domain, String username, char[] password) throws LoginException {
+        return login(new LoginContextBuilder(type).domain(domain).username(username).password(password).build());
+    }
+
+    /**
+     * @param context the login context to log in with
+     * @return the active login of the given context
+     * @throws LoginException if the login fails
+     */
+    public static JaasLogin login(LoginContext context) throws LoginException {
+        context.login();
+        return new JaasLogin(context);
+    }
+
+    public static final class JaasLogin implements Login {
+        private final LoginContext context;
+
+        private JaasLogin(LoginContext context) {
+            this.context = context;
+        }
+
+        public LoginContext getLoginContext() {
+            return context;
+        }
+
+        @Override
+        public Subject getSubject() {
+            return context.getSubject();
+        }
+
+        @Override
+        public void logout() throws LoginException {
+            context.logout();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wildfly.extension.camel.security;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * An immutable set of required role names compiled for allocation-free checks. Each role is assigned a bit so that
+ * the granted authorities can be matched in a single pass; sets of more than 64 roles are checked role by role.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+final class RequiredRoles {
+
+    static final RequiredRoles NONE = new RequiredRoles(Collections.emptySet());
+
+    private static final int MAX_BITS = Long.SIZE;
+
+    private final String[] roles;
+    private final Map<String, Integer> bits;
+    private final long allBits;
+
+    private RequiredRoles(Set<String> roles) {
+        this.roles = roles.toArray(new String[roles.size()]);
+        this.bits = new HashMap<>();
+        for (int i = 0; i < this.roles.length && i < MAX_BITS; i++) {
+            bits.put(this.roles[i], i);
+        }
+        this.allBits = this.roles.length >= MAX_BITS ? -1L : (1L << this.roles.length) - 1;
+    }
+
+    static RequiredRoles of(Collection<String> roles) {
+        return roles.isEmpty() ? NONE : new RequiredRoles(new TreeSet<>(roles));
+    }
+
+    /**
+     * @return {@code true} if all required roles are contained in the given role names
+     */
+    boolean isGrantedBy(Set<String> granted) {
+        for (String role : roles) {
+            if (!granted.contains(role)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if all required roles are contained in the given authorities
+     */
+    boolean isGrantedBy(Collection<? extends GrantedAuthority> authorities) {
+        if (roles.length > MAX_BITS) {
+            for (String role : roles) {
+                if (!contains(authorities, role)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        long granted = 0;
+        for (GrantedAuthority authority : authorities) {
+            Integer bit = bits.get(authority.getAuthority());
+            if (bit != null) {
+                granted |= 1L << bit;
+                if (granted == allBits) {
+                    return true;
+                }
+            }
+        }
+        return granted == allBits;
+    }
+
+    /**
+     * @return the required roles not contained in the given role names
+     */
+    Set<String> getMissing(Set<String> granted) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String role : roles) {
+            if (!granted.contains(role)) {
+                missing.add(role);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * @return the required roles not contained in the given authorities
+     */
+    Set<String> getMissing(Collection<? extends GrantedAuthority> authorities) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String role : roles) {
+            if (!contains(authorities, role)) {
+                missing.add(role);
+            }
+        }
+        return missing;
+    }
+
+    private static boolean contains(Collection<? extends GrantedAuthority> authorities, String role) {
+        for (GrantedAuthority authority : authorities) {
+            if (role.equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
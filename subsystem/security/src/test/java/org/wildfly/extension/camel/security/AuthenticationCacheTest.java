@@ -0,0 +1,87 @@
+package org.wildfly.extension.camel.security;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.Subject;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AuthenticationCacheTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        final AuthenticationCache cache = new AuthenticationCache(4, 1, TimeUnit.MINUTES);
+        final AuthenticatedSubject subject = AuthenticatedSubject.of(new Subject());
+        Assert.assertNull(cache.get("other", "user", "password".toCharArray()));
+
+        cache.put("other", "user", "password".toCharArray(), subject);
+        Assert.assertSame(subject, cache.get("other", "user", "password".toCharArray()));
+        Assert.assertNull(cache.get("other", "user", "wrong".toCharArray()));
+        Assert.assertNull(cache.get("another", "user", "password".toCharArray()));
+
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testExpiredEntriesAreEvicted() throws Exception {
+        final AuthenticationCache cache = new AuthenticationCache(4, 1, TimeUnit.MILLISECONDS);
+        cache.put(null, "user", "password".toCharArray(), AuthenticatedSubject.of(new Subject()));
+        Thread.sleep(10);
+
+        Assert.assertNull(cache.get(null, "user", "password".toCharArray()));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testFullCacheEvictsOldestEntry() throws Exception {
+        final AuthenticationCache cache = new AuthenticationCache(2, 1, TimeUnit.MINUTES);
+        final AuthenticatedSubject subject = AuthenticatedSubject.of(new Subject());
+        cache.put("other", "a", "password".toCharArray(), subject);
+        Thread.sleep(2);
+        cache.put("other", "b", "password".toCharArray(), subject);
+        cache.put("other", "c", "password".toCharArray(), subject);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertNull(cache.get("other", "a", "password".toCharArray()));
+        Assert.assertNotNull(cache.get("other", "b", "password".toCharArray()));
+        Assert.assertNotNull(cache.get("other", "c", "password".toCharArray()));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final AuthenticationCache cache = new AuthenticationCache(4, 1, TimeUnit.MINUTES);
+        final AuthenticatedSubject subject = AuthenticatedSubject.of(new Subject());
+        cache.put("other", "user", "password".toCharArray(), subject);
+        cache.put("other", "user", "changed".toCharArray(), subject);
+        cache.put("other", "admin", "password".toCharArray(), subject);
+
+        cache.invalidate("other", "user");
+        Assert.assertEquals(1, cache.size());
+        Assert.assertNull(cache.get("other", "user", "password".toCharArray()));
+        Assert.assertNotNull(cache.get("other", "admin", "password".toCharArray()));
+
+        cache.invalidateAll();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCredentialsAreNotCached() {
+        final Subject subject = new Subject();
+        subject.getPrivateCredentials().add("secret".toCharArray());
+        subject.getPublicCredentials().add("token");
+        final AuthenticatedSubject authenticated = AuthenticatedSubject.of(subject);
+        Assert.assertTrue(authenticated.getSubject().getPrivateCredentials().isEmpty());
+        Assert.assertTrue(authenticated.getSubject().getPublicCredentials().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClientPolicyRejectsCache() {
+        new ClientAuthorizationPolicy().authenticationCache(new AuthenticationCache(4, 1, TimeUnit.MINUTES));
+    }
+}
@@ -0,0 +1,87 @@
+package org.wildfly.extension.camel.security;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.security.auth.Subject;
+
+import org.jboss.security.SimpleGroup;
+import org.jboss.security.SimplePrincipal;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+public class DomainAuthenticationManagerTest {
+
+    @Test
+    public void testAuthorities() {
+        DomainAuthenticationManager manager = new DomainAuthenticationManager();
+        manager.setIdentityVerifier(new InMemoryIdentityVerifier().addUser("other", "user1", "password1".toCharArray(), "Role1", "Role2"));
+
+        Authentication result = manager.authenticate(token("user1", "password1"));
+        Assert.assertEquals("user1", result.getPrincipal());
+        Assert.assertEquals("other", result.getDetails());
+        Assert.assertEquals(roles("Role1", "Role2"), authorities(result));
+    }
+
+    @Test
+    public void testInvalidPassword() {
+        DomainAuthenticationManager manager = new DomainAuthenticationManager();
+        manager.setIdentityVerifier(new InMemoryIdentityVerifier().addUser("other", "user1", "password1".toCharArray(), "Role1"));
+        try {
+            manager.authenticate(token("user1", "password2"));
+            Assert.fail("AuthenticationServiceException expected");
+        } catch (AuthenticationServiceException ex) {
+            Assert.assertEquals("Password invalid/Password required", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testNestedGroupsAreNotFlattened() {
+        SimpleGroup nested = new SimpleGroup("Nested");
+        nested.addMember(new SimplePrincipal("Inner"));
+        SimpleGroup roles = new SimpleGroup(AuthenticatedSubject.ROLES_GROUP);
+        roles.addMember(new SimplePrincipal("Role1"));
+        roles.addMember(nested);
+        Subject subject = new Subject();
+        subject.getPrincipals().add(roles);
+
+        DomainAuthenticationManager manager = new DomainAuthenticationManager();
+        manager.setIdentityVerifier((domain, username, password) -> new IdentityVerifier.Login() {
+            @Override
+            public Subject getSubject() {
+                return subject;
+            }
+
+            @Override
+            public void logout() {
+            }
+        });
+        Assert.assertEquals(roles("Role1", "Nested"), authorities(manager.authenticate(token("user1", "password1"))));
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String username, String password) {
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(username, password.toCharArray());
+        token.setDetails("other");
+        return token;
+    }
+
+    private static Set<String> authorities(Authentication auth) {
+        Set<String> result = new HashSet<>();
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            result.add(authority.getAuthority());
+        }
+        return result;
+    }
+
+    private static Set<String> roles(String... roles) {
+        Set<String> result = new HashSet<>();
+        for (String role : roles) {
+            result.add(role);
+        }
+        return result;
+    }
+}
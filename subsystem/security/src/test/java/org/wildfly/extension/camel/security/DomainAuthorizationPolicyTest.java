@@ -0,0 +1,124 @@
+package org.wildfly.extension.camel.security;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.Subject;
+import javax.security.auth.login.LoginContext;
+import javax.security.auth.login.LoginException;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DomainAuthorizationPolicyTest {
+
+    private final IdentityVerifier verifier = new InMemoryIdentityVerifier()
+            .addUser(null, "user1", "password1".toCharArray(), "Role1")
+            .addUser(null, "user2", "password2".toCharArray(), "Role1", "Role2");
+
+    private CamelContext camelctx;
+    private ExecutorService executor;
+
+    @Before
+    public void before() {
+        camelctx = new DefaultCamelContext();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void after() throws Exception {
+        camelctx.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testAuthorized() throws Exception {
+        start(new DomainAuthorizationPolicy().roles("Role2").identityVerifier(verifier));
+        Assert.assertEquals("Hello Kermit", request("user2", "password2"));
+    }
+
+    @Test
+    public void testMissingRole() throws Exception {
+        start(new DomainAuthorizationPolicy().roles("Role2").identityVerifier(verifier));
+        assertDenied("user1", "password1");
+    }
+
+    @Test
+    public void testInvalidPassword() throws Exception {
+        start(new DomainAuthorizationPolicy().roles("Role1").identityVerifier(verifier));
+        assertDenied("user1", "password2");
+    }
+
+    @Test
+    public void testCachedSubjectIsAuthorized() throws Exception {
+        AuthenticationCache cache = new AuthenticationCache(10, 1, TimeUnit.MINUTES);
+        start(new DomainAuthorizationPolicy().roles("Role2").identityVerifier(verifier).authenticationCache(cache));
+        Assert.assertEquals("Hello Kermit", request("user2", "password2"));
+        Assert.assertEquals("Hello Kermit", request("user2", "password2"));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.size());
+
+        assertDenied("user1", "password1");
+        assertDenied("user1", "password1");
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testAuthenticationExecutor() throws Exception {
+        start(new DomainAuthorizationPolicy().roles("Role2").identityVerifier(verifier).authenticationExecutor(executor));
+        Assert.assertEquals("Hello Kermit", request("user2", "password2"));
+        assertDenied("user1", "password1");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLoginContextAuthorizationRejectsCache() {
+        new DomainAuthorizationPolicy() {
+            @Override
+            protected void authorize(LoginContext context) throws LoginException {
+            }
+        }.authenticationCache(new AuthenticationCache(10, 1, TimeUnit.MINUTES));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClientPolicyRejectsIdentityVerifier() {
+        new ClientAuthorizationPolicy().identityVerifier(verifier);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClientPolicyRejectsExecutor() {
+        new ClientAuthorizationPolicy().authenticationExecutor(executor);
+    }
+
+    private void start(AbstractAuthorizationPolicy policy) throws Exception {
+        camelctx.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start").policy(policy).transform(body().prepend("Hello "));
+            }
+        });
+        camelctx.start();
+    }
+
+    private String request(String username, String password) {
+        Subject subject = new Subject();
+        subject.getPrincipals().add(new UsernamePasswordPrincipal(username, password.toCharArray()));
+        return camelctx.createProducerTemplate().requestBodyAndHeader("direct:start", "Kermit", Exchange.AUTHENTICATION, subject, String.class);
+    }
+
+    private void assertDenied(String username, String password) {
+        try {
+            request(username, password);
+            Assert.fail("CamelExecutionException expected");
+        } catch (CamelExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof LoginException);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.wildfly.extension.camel.security;
+
+import org.jboss.crypto.CryptoUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EncodedUsernamePasswordPrincipalTest {
+
+    @Test
+    public void testAsciiPassword() {
+        assertSameHash("ApplicationRealm", "user1", "appl-pa$$wrd1");
+    }
+
+    @Test
+    public void testNonAsciiPassword() {
+        assertSameHash("ApplicationRealm", "usér", "pässwörd-€-日本");
+    }
+
+    @Test
+    public void testEmptyPassword() {
+        assertSameHash("ApplicationRealm", "user1", "");
+    }
+
+    private static void assertSameHash(String realm, String username, String password) {
+        String expected = CryptoUtil.createPasswordHash("MD5", "hex", null, null, username + ":" + realm + ":" + password);
+        char[] actual = EncodedUsernamePasswordPrincipal.encryptPassword(realm, username, password.toCharArray());
+        Assert.assertEquals(expected, new String(actual));
+        Assert.assertEquals(expected, new String(new EncodedUsernamePasswordPrincipal(realm, username, password.toCharArray()).getPassword()));
+    }
+}
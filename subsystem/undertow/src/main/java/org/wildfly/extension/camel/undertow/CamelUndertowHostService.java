@@ -23,10 +23,12 @@ package org.wildfly.extension.camel.undertow;
 import static org.wildfly.extension.camel.CamelLogger.LOGGER;
 
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -52,22 +54,30 @@ import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 import org.wildfly.camel.utils.IllegalStateAssertion;
 import org.wildfly.extension.camel.CamelConstants;
+import org.wildfly.extension.camel.parser.HttpEndpointMetrics;
 import org.wildfly.extension.camel.parser.SubsystemState.RuntimeState;
 import org.wildfly.extension.camel.service.CamelEndpointDeployerService.CamelEndpointDeployerHandler;
 import org.wildfly.extension.camel.service.CamelEndpointDeploymentSchedulerService;
 import org.wildfly.extension.undertow.Host;
+import org.wildfly.extension.undertow.ListenerService;
 import org.wildfly.extension.undertow.UndertowEventListener;
 import org.wildfly.extension.undertow.UndertowListener;
 import org.wildfly.extension.undertow.UndertowService;
 
 import io.undertow.Handlers;
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HandlerWrapper;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.server.RoutingHandler;
+import io.undertow.server.handlers.RequestLimit;
+import io.undertow.server.handlers.ResponseCodeHandler;
 import io.undertow.servlet.api.Deployment;
 import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.util.AttachmentKey;
 import io.undertow.util.Methods;
 import io.undertow.util.PathTemplate;
+import io.undertow.util.PathTemplateMatch;
 import io.undertow.util.URLUtils;
 
 /**
@@ -108,7 +118,7 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
         runtimeState.setHttpHost(getConnectionURL());
         eventListener = new CamelUndertowEventListener();
         injectedUndertowService.getValue().registerListener(eventListener);
-        undertowHost = new WildFlyUndertowHost(injectedDefaultHost.getValue());
+        undertowHost = new WildFlyUndertowHost(injectedDefaultHost.getValue(), runtimeState);
     }
 
     private URL getConnectionURL() throws StartException {
@@ -141,6 +151,7 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
         private static final String DEFAULT_METHODS = "GET,HEAD,POST,PUT,DELETE,TRACE,OPTIONS,CONNECT,PATCH";
         private final Map<String, DelegatingRoutingHandler> handlers = new ConcurrentHashMap<>();
         private final Host defaultHost;
+        private final RuntimeState runtimeState;
 
         private static CamelEndpointDeploymentSchedulerService lookupDeploymentSchedulerService(ClassLoader tccl) {
             final ServiceName serviceName = CamelEndpointDeploymentSchedulerService
@@ -160,8 +171,9 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
             }
         }
 
-        WildFlyUndertowHost(Host host) {
+        WildFlyUndertowHost(Host host, RuntimeState runtimeState) {
             this.defaultHost = host;
+            this.runtimeState = runtimeState;
         }
 
         @Override
@@ -195,6 +207,23 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
             }
         }
 
+        /**
+         * @param listenerName the name of a listener of the Undertow server that owns the default host
+         * @return the address and port the given listener is bound to
+         * @throws IllegalStateException if the server has no listener with the given name
+         */
+        InetSocketAddress getListenerAddress(String listenerName) {
+            for (UndertowListener listener : defaultHost.getServer().getListeners()) {
+                if (listener instanceof ListenerService && listenerName.equals(((ListenerService) listener).getName())) {
+                    SocketBinding binding = listener.getSocketBinding();
+                    IllegalStateAssertion.assertNotNull(binding, "Undertow listener '" + listenerName + "' has no socket binding");
+                    return binding.getSocketAddress();
+                }
+            }
+            throw new IllegalStateException("No Undertow listener named '" + listenerName + "' in server "
+                    + defaultHost.getServer().getName());
+        }
+
         private void validateEndpointContextPath(URI httpURI) {
             String undertowEndpointPath = getContextPath(httpURI);
             Set<Deployment> deployments = defaultHost.getDeployments();
@@ -232,7 +261,7 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
             boolean registerRoutingHandler = false;
             DelegatingRoutingHandler routingHandler = handlers.get(contextPath);
             if (routingHandler == null) {
-                routingHandler = new DelegatingRoutingHandler(checkTccl());
+                routingHandler = new DelegatingRoutingHandler(checkTccl(), contextPath, runtimeState);
                 registerRoutingHandler = true;
                 handlers.put(contextPath, routingHandler);
                 LOGGER.debug("Created new DelegatingRoutingHandler {}", routingHandler);
@@ -241,6 +270,13 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
             String methods = reginfo.getMethodRestrict() == null ? DEFAULT_METHODS : reginfo.getMethodRestrict();
             LOGGER.debug("Using methods {}", methods);
 
+            if (handler instanceof WildFlyUndertowComponent.WildFlyUndertowUndertowConsumer) {
+                WildFlyUndertowComponent.WildFlyUndertowEndpoint endpoint = ((WildFlyUndertowComponent.WildFlyUndertowUndertowConsumer) handler).getEndpoint();
+                if (endpoint.getMaxConcurrentRequests() > 0) {
+                    routingHandler.limitRequests(httpURI, endpoint.getMaxConcurrentRequests(), endpoint.getMaxQueuedRequests());
+                }
+            }
+
             HttpHandler result = null;
             for (String method : methods.split(",")) {
                 LOGGER.debug("Adding {}: {} for handler {}", method, relativePath, handler);
@@ -265,6 +301,7 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
             if (routingHandler != null) {
                 String methods = reginfo.getMethodRestrict() == null ? DEFAULT_METHODS : reginfo.getMethodRestrict();
                 boolean routingHandlerEmpty = false;
+                routingHandler.unlimitRequests(httpURI);
                 for (String method : methods.split(",")) {
                     String relativePath = getRelativePath(httpURI, matchOnUriPrefix);
                     routingHandlerEmpty = routingHandler.remove(method, relativePath);
@@ -308,16 +345,37 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
         }
     }
 
-    static class DelegatingRoutingHandler implements HttpHandler {
+    /**
+     * Routes the requests of a context path to the registered handlers. As a {@link HandlerWrapper}, it also wraps the
+     * initial handler of the endpoint deployment so that the request limit is applied before the servlet request
+     * lifecycle starts.
+     */
+    static class DelegatingRoutingHandler implements HttpHandler, HandlerWrapper {
 
         private final Map<MethodPathKey, MethodPathValue> paths = new ConcurrentHashMap<>();
-        private final RoutingHandler delegate = Handlers.routing();
+        /** A snapshot of {@link #paths} rebuilt on every change so that {@link #handleRequest(HttpServerExchange)} needs no locking */
+        private volatile RoutingTrie trie = RoutingTrie.EMPTY;
+        /**
+         * Routes all paths if any of them is not supported by {@link RoutingTrie} so that the template precedence of
+         * {@link RoutingHandler} applies to all of them; {@code null} if all paths are supported
+         */
+        private volatile RoutingHandler fallback;
         /** The class loader of the deployment in which the path served by this {@link DelegatingRoutingHandler} was defined */
         private final ModuleClassLoader classLoader;
-
-        public DelegatingRoutingHandler(ModuleClassLoader classLoader) {
+        private final String contextPath;
+        private final RuntimeState runtimeState;
+        /** Limits the concurrent requests of the whole context path; {@code null} if unlimited */
+        private volatile RequestLimit requestLimit;
+        private int maxConcurrentRequests;
+        private int maxQueuedRequests;
+        /** The number of registrations of each consumer URI that configured the {@link #requestLimit}, guarded by {@link #paths} */
+        private final Map<URI, Integer> limitingConsumers = new HashMap<>();
+
+        public DelegatingRoutingHandler(ModuleClassLoader classLoader, String contextPath, RuntimeState runtimeState) {
             super();
             this.classLoader = classLoader;
+            this.contextPath = contextPath;
+            this.runtimeState = runtimeState;
         }
 
         HttpHandler add(String method, String path, HttpHandler handler) {
@@ -326,12 +384,15 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
             synchronized (paths) { /* lock paths while modifying it, so that paths.isEmpty() in remove() gives a consistent result */
                 MethodPathValue value = paths.computeIfAbsent(key, k -> new MethodPathValue());
                 result = value.addRef(handler, method, path);
+                if (handler == result) {
+                    /* register only the very first handler per path and method */
+                    value.instrument(runtimeState.addEndpointMetrics(metricsKey(key)));
+                    rebuild();
+                }
             }
 
             if (handler == result) {
-                /* register only the very first handler per path and method */
                 LOGGER.debug("Registered paths {}", this.toString());
-                delegate.add(method, path, handler);
             }
             return result;
         }
@@ -345,20 +406,115 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
                     value.removeRef();
                     if (value.refCount <= 0) {
                         paths.remove(key);
+                        runtimeState.removeEndpointMetrics(metricsKey(key));
+                        rebuild();
                     }
                 }
                 result = paths.isEmpty();
             }
-            delegate.remove(Methods.fromString(method), path);
             return result;
         }
 
+        /**
+         * The limit applies to all consumers under the context path of this handler, so they all must configure the
+         * same one. It is removed again with the last consumer that configured it.
+         *
+         * @param consumerUri the URI of the consumer that configures the limit
+         */
+        void limitRequests(URI consumerUri, int maxConcurrentRequests, int maxQueuedRequests) {
+            synchronized (paths) {
+                if (requestLimit == null) {
+                    this.maxConcurrentRequests = maxConcurrentRequests;
+                    this.maxQueuedRequests = maxQueuedRequests;
+                    this.requestLimit = new RequestLimit(maxConcurrentRequests, maxQueuedRequests);
+                } else if (this.maxConcurrentRequests != maxConcurrentRequests || this.maxQueuedRequests != maxQueuedRequests) {
+                    throw new IllegalStateException(String.format(
+                            "Conflicting request limits for context path %s: maxConcurrentRequests=%d, maxQueuedRequests=%d and maxConcurrentRequests=%d, maxQueuedRequests=%d",
+                            contextPath, this.maxConcurrentRequests, this.maxQueuedRequests, maxConcurrentRequests, maxQueuedRequests));
+                }
+                limitingConsumers.merge(consumerUri, 1, Integer::sum);
+            }
+        }
+
+        /**
+         * @param consumerUri the URI of an unregistered consumer, which may or may not have configured the limit
+         */
+        void unlimitRequests(URI consumerUri) {
+            synchronized (paths) {
+                if (limitingConsumers.computeIfPresent(consumerUri, (uri, count) -> count > 1 ? count - 1 : null) == null
+                        && limitingConsumers.isEmpty() && requestLimit != null) {
+                    requestLimit = null;
+                    LOGGER.debug("Removed the request limit of context path {}", contextPath);
+                }
+            }
+        }
+
+        @Override
+        public HttpHandler wrap(HttpHandler next) {
+            return exchange -> {
+                final RequestLimit limit = requestLimit;
+                if (limit == null) {
+                    next.handleRequest(exchange);
+                } else {
+                    limit.handleRequest(exchange, next);
+                }
+            };
+        }
+
+        private String metricsKey(MethodPathKey key) {
+            return key.method + " " + contextPath + key.path;
+        }
+
+        /**
+         * Always call under the {@link #paths} lock.
+         */
+        private void rebuild() {
+            boolean supported = true;
+            for (MethodPathKey key : paths.keySet()) {
+                if (!RoutingTrie.isSupported(key.path)) {
+                    supported = false;
+                    break;
+                }
+            }
+            if (supported) {
+                final RoutingTrie.Builder builder = new RoutingTrie.Builder();
+                for (Map.Entry<MethodPathKey, MethodPathValue> en : paths.entrySet()) {
+                    builder.add(Methods.fromString(en.getKey().method), en.getKey().path, en.getValue().instrumentedHandler);
+                }
+                this.trie = builder.build();
+                this.fallback = null;
+            } else {
+                final RoutingHandler routingHandler = Handlers.routing();
+                for (Map.Entry<MethodPathKey, MethodPathValue> en : paths.entrySet()) {
+                    routingHandler.add(en.getKey().method, en.getKey().path, en.getValue().instrumentedHandler);
+                }
+                this.fallback = routingHandler;
+                this.trie = RoutingTrie.EMPTY;
+            }
+        }
+
         @Override
         public void handleRequest(HttpServerExchange exchange) throws Exception {
             if (exchange.getRelativePath().isEmpty()) {
                 exchange.setRelativePath("/");
             }
-            delegate.handleRequest(exchange);
+            final RoutingHandler currentFallback = this.fallback;
+            if (currentFallback != null) {
+                currentFallback.handleRequest(exchange);
+                return;
+            }
+            final RoutingTrie.Match match = this.trie.match(exchange.getRequestMethod(), exchange.getRelativePath());
+            if (match != null) {
+                final Map<String, String> parameters = match.getParameters();
+                exchange.putAttachment(PathTemplateMatch.ATTACHMENT_KEY, new PathTemplateMatch(match.getTemplate(), parameters));
+                for (Map.Entry<String, String> en : parameters.entrySet()) {
+                    exchange.addQueryParam(en.getKey(), en.getValue());
+                }
+                match.getHandler().handleRequest(exchange);
+            } else {
+                /* Like RoutingHandler, answer 404 also if the path is registered for other methods only */
+                ResponseCodeHandler.HANDLE_404.handleRequest(exchange);
+            }
         }
 
         @Override
@@ -412,6 +568,8 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
     static class MethodPathValue {
         private int refCount;
         private HttpHandler handler;
+        /** The {@link #handler} wrapped in a {@link MetricsHandler} */
+        private HttpHandler instrumentedHandler;
 
         MethodPathValue() {
         }
@@ -432,9 +590,14 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
             }
         }
 
+        void instrument(HttpEndpointMetrics metrics) {
+            this.instrumentedHandler = new MetricsHandler(handler, metrics);
+        }
+
         public void removeRef() {
             if (--refCount == 0) {
                 this.handler = null;
+                this.instrumentedHandler = null;
             }
         }
 
@@ -445,6 +608,43 @@ public class CamelUndertowHostService extends AbstractService<UndertowHost> {
 
     }
 
+    /**
+     * Records the requests passed to the wrapped {@link HttpHandler} in {@link HttpEndpointMetrics}. The handler is its
+     * own completion listener; the latency is measured from the time the request reached this handler, which is kept
+     * as an exchange attachment, because Undertow only records the request start time if statistics are enabled.
+     */
+    static class MetricsHandler implements HttpHandler, ExchangeCompletionListener {
+        private static final AttachmentKey<Long> START_TIME = AttachmentKey.create(Long.class);
+
+        private final HttpHandler next;
+        private final HttpEndpointMetrics metrics;
+
+        MetricsHandler(HttpHandler next, HttpEndpointMetrics metrics) {
+            this.next = next;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void handleRequest(HttpServerExchange exchange) throws Exception {
+            metrics.requestStarted();
+            exchange.putAttachment(START_TIME, System.nanoTime());
+            exchange.addExchangeCompleteListener(this);
+            next.handleRequest(exchange);
+        }
+
+        @Override
+        public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+            final Long start = exchange.getAttachment(START_TIME);
+            metrics.requestCompleted(start != null ? System.nanoTime() - start : -1, exchange.getStatusCode());
+            nextListener.proceed();
+        }
+
+        @Override
+        public String toString() {
+            return next.toString();
+        }
+    }
+
     class CamelUndertowEventListener implements UndertowEventListener {
 
         private final ConcurrentMap<String, Boolean> existingContextPaths = new ConcurrentHashMap<>();
@@ -0,0 +1,270 @@
+/*
+ * #%L
+ * Wildfly Camel :: Subsystem
+ * %%
+ * Copyright (C) 2013 - 2019 RedHat
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wildfly.extension.camel.undertow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.undertow.server.HttpHandler;
+import io.undertow.util.HttpString;
+
+/**
+ * An immutable method and path segment trie used by {@link CamelUndertowHostService.DelegatingRoutingHandler}. Each
+ * node has exact segment children, at most one {@code {param}} child and a list of prefixes registered through
+ * templates ending with {@code *}. Instances are built once through a {@link Builder} and can be read concurrently
+ * without locking.
+ *
+ * Only templates whose parameters span whole segments are supported, see {@link #isSupported(String)}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+final class RoutingTrie {
+
+    static final RoutingTrie EMPTY = new RoutingTrie(Collections.emptyMap());
+
+    private static final String WILDCARD = "*";
+
+    private final Map<HttpString, Node> roots;
+
+    private RoutingTrie(Map<HttpString, Node> roots) {
+        this.roots = roots;
+    }
+
+    /**
+     * @param template the path template to check
+     * @return {@code true} if the given template consists only of exact segments, {@code {param}} segments and an
+     *         optional trailing {@code *}
+     */
+    static boolean isSupported(String template) {
+        final boolean prefix = template.endsWith(WILDCARD);
+        final String[] segments = split(prefix ? template.substring(0, template.length() - 1) : template);
+        for (int i = 0; i < segments.length; i++) {
+            final String segment = segments[i];
+            final boolean tail = prefix && i == segments.length - 1;
+            final String literal = !tail && isParam(segment) ? segment.substring(1, segment.length() - 1) : segment;
+            if (literal.indexOf('{') >= 0 || literal.indexOf('}') >= 0 || literal.indexOf('*') >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] split(String path) {
+        return (path.startsWith("/") ? path.substring(1) : path).split("/", -1);
+    }
+
+    private static boolean isParam(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    /**
+     * @param method the HTTP method of the request
+     * @param path the relative path of the request
+     * @return the {@link Match} or {@code null} if no template registered for the given method matches the given path
+     */
+    Match match(HttpString method, String path) {
+        final Node root = roots.get(method);
+        if (root == null) {
+            return null;
+        }
+        return root.match(path, path.startsWith("/") ? 1 : 0, null);
+    }
+
+    boolean isEmpty() {
+        return roots.isEmpty();
+    }
+
+    static final class Match {
+        private final HttpHandler handler;
+        private final String template;
+        private final Map<String, String> parameters;
+
+        Match(HttpHandler handler, String template, Map<String, String> parameters) {
+            this.handler = handler;
+            this.template = template;
+            this.parameters = parameters;
+        }
+
+        HttpHandler getHandler() {
+            return handler;
+        }
+
+        String getTemplate() {
+            return template;
+        }
+
+        Map<String, String> getParameters() {
+            return parameters;
+        }
+    }
+
+    static final class Builder {
+        private final Map<HttpString, Node> roots = new HashMap<>();
+
+        /**
+         * @param method the HTTP method
+         * @param template a template supported as per {@link RoutingTrie#isSupported(String)}
+         * @param handler the handler to route the matching requests to
+         * @return this {@link Builder}
+         */
+        Builder add(HttpString method, String template, HttpHandler handler) {
+            final boolean prefix = template.endsWith(WILDCARD);
+            final String[] segments = split(prefix ? template.substring(0, template.length() - 1) : template);
+            final int dirs = prefix ? segments.length - 1 : segments.length;
+            final List<String> paramNames = new ArrayList<>();
+            Node node = roots.computeIfAbsent(method, k -> new Node());
+            for (int i = 0; i < dirs; i++) {
+                final String segment = segments[i];
+                if (isParam(segment)) {
+                    paramNames.add(segment.substring(1, segment.length() - 1));
+                    if (node.param == null) {
+                        node.param = new Node();
+                    }
+                    node = node.param;
+                } else {
+                    node = node.literals.computeIfAbsent(segment, k -> new Node());
+                }
+            }
+            final Route route = new Route(handler, template, paramNames.toArray(new String[paramNames.size()]));
+            if (prefix) {
+                final String tail = segments[segments.length - 1];
+                int i = 0;
+                /* keep the longest tails first */
+                while (i < node.prefixes.size() && node.prefixes.get(i).tail.length() >= tail.length()) {
+                    i++;
+                }
+                node.prefixes.add(i, new Prefix(tail, route));
+            } else {
+                node.route = route;
+            }
+            return this;
+        }
+
+        RoutingTrie build() {
+            return roots.isEmpty() ? EMPTY : new RoutingTrie(Collections.unmodifiableMap(new HashMap<>(roots)));
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final List<Prefix> prefixes = new ArrayList<>(1);
+        private Node param;
+        private Route route;
+
+        /**
+         * @param path the path to match
+         * @param start the start index of the segment to match against the children of this node
+         * @param values the parameter values collected so far
+         * @return a {@link Match} or {@code null}
+         */
+        Match match(String path, int start, ParamValues values) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            final String segment = path.substring(start, end);
+            final Node literal = literals.get(segment);
+            if (literal != null) {
+                final Match result = literal.matchRest(path, end, values);
+                if (result != null) {
+                    return result;
+                }
+            }
+            if (param != null && !segment.isEmpty()) {
+                final Match result = param.matchRest(path, end, new ParamValues(segment, values));
+                if (result != null) {
+                    return result;
+                }
+            }
+            for (Prefix prefix : prefixes) {
+                if (path.startsWith(prefix.tail, start)) {
+                    return prefix.route.toMatch(values);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @param path the path to match
+         * @param end the end index of the segment consumed by this node
+         * @param values the parameter values collected so far
+         * @return a {@link Match} or {@code null}
+         */
+        private Match matchRest(String path, int end, ParamValues values) {
+            if (end < path.length()) {
+                return match(path, end + 1, values);
+            }
+            return route != null ? route.toMatch(values) : null;
+        }
+    }
+
+    private static final class Prefix {
+        private final String tail;
+        private final Route route;
+
+        Prefix(String tail, Route route) {
+            this.tail = tail;
+            this.route = route;
+        }
+    }
+
+    private static final class Route {
+        private final HttpHandler handler;
+        private final String template;
+        private final String[] paramNames;
+
+        Route(HttpHandler handler, String template, String[] paramNames) {
+            this.handler = handler;
+            this.template = template;
+            this.paramNames = paramNames;
+        }
+
+        Match toMatch(ParamValues values) {
+            if (paramNames.length == 0) {
+                return new Match(handler, template, Collections.emptyMap());
+            }
+            final String[] collected = new String[paramNames.length];
+            int i = paramNames.length;
+            for (ParamValues v = values; v != null && i > 0; v = v.previous) {
+                collected[--i] = v.value;
+            }
+            final Map<String, String> parameters = new LinkedHashMap<>();
+            for (int j = 0; j < paramNames.length; j++) {
+                parameters.put(paramNames[j], collected[j]);
+            }
+            return new Match(handler, template, parameters);
+        }
+    }
+
+    /** An immutable linked list of parameter values in reverse order so that backtracking needs no copying */
+    private static final class ParamValues {
+        private final String value;
+        private final ParamValues previous;
+
+        ParamValues(String value, ParamValues previous) {
+            this.value = value;
+            this.previous = previous;
+        }
+    }
+}
@@ -19,6 +19,11 @@
  */
 package org.wildfly.extension.camel.undertow;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.apache.camel.Component;
 import org.jboss.msc.service.ServiceTarget;
 import org.wildfly.extension.camel.CamelSubsytemExtension;
@@ -26,6 +31,8 @@ import org.wildfly.extension.camel.parser.SubsystemState;
 
 public class UndertowSubsystemExtension implements CamelSubsytemExtension {
 
+    private static final Set<String> COMPONENT_NAMES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("cxf", "undertow")));
+
     @Override
     public void addExtensionServices(ServiceTarget serviceTarget, SubsystemState subsystemState) {
         CamelUndertowHostService.addService(serviceTarget, subsystemState.getRuntimeState());
@@ -41,4 +48,9 @@ public class UndertowSubsystemExtension implements CamelSubsytemExtension {
         }
         return null;
     }
+
+    @Override
+    public Set<String> getComponentNames() {
+        return COMPONENT_NAMES;
+    }
 }
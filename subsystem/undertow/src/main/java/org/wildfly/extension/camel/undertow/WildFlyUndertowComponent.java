@@ -21,19 +21,48 @@ package org.wildfly.extension.camel.undertow;
 
 import static org.wildfly.extension.camel.CamelLogger.LOGGER;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletRequest;
 
 import org.apache.camel.Consumer;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
 import org.apache.camel.Processor;
+import org.apache.camel.WrappedFile;
+import org.apache.camel.component.undertow.DefaultUndertowHttpBinding;
 import org.apache.camel.component.undertow.UndertowComponent;
 import org.apache.camel.component.undertow.UndertowConsumer;
 import org.apache.camel.component.undertow.UndertowEndpoint;
 import org.apache.camel.component.undertow.UndertowHost;
 import org.apache.camel.component.undertow.UndertowHostKey;
+import org.apache.camel.component.undertow.UndertowHttpBinding;
+import org.apache.camel.impl.DefaultMessage;
+import org.wildfly.camel.utils.IllegalStateAssertion;
 import org.wildfly.camel.utils.ServiceLocator;
 import org.wildfly.extension.camel.parser.SubsystemState.RuntimeState;
 
+import io.undertow.io.IoCallback;
+import io.undertow.io.Sender;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.ResponseCodeHandler;
+import io.undertow.server.handlers.form.FormDataParser;
+import io.undertow.servlet.handlers.ServletRequestContext;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+
 /**
  * An extension to the {@link UndertowComponent}
  *
@@ -42,6 +71,8 @@ import org.wildfly.extension.camel.parser.SubsystemState.RuntimeState;
  */
 public class WildFlyUndertowComponent extends UndertowComponent {
 
+    private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+
     private final RuntimeState runtimeState;
 
     public WildFlyUndertowComponent(RuntimeState runtimeState) {
@@ -60,18 +91,126 @@ public class WildFlyUndertowComponent extends UndertowComponent {
 
     class WildFlyUndertowEndpoint extends UndertowEndpoint {
 
+        private boolean asyncDispatch;
+        private String listener;
+        private int maxConcurrentRequests;
+        private int maxQueuedRequests = -1;
+        private boolean streamRequestBody;
+
         WildFlyUndertowEndpoint(String uri, UndertowComponent component) throws URISyntaxException {
             super(uri, component);
         }
 
+        public boolean isAsyncDispatch() {
+            return asyncDispatch;
+        }
+
+        /**
+         * If {@code true}, the consumer processes exchanges with the asynchronous routing engine and releases the
+         * worker thread while the route waits for an asynchronous reply. The response is finished from the exchange's
+         * completion callback.
+         */
+        public void setAsyncDispatch(boolean asyncDispatch) {
+            this.asyncDispatch = asyncDispatch;
+        }
+
+        public String getListener() {
+            return listener;
+        }
+
+        /**
+         * The name of the Undertow listener (e.g. an HTTP/2 enabled one) through which the consumer should be
+         * reachable. Requests arriving through other listeners of the server are answered with {@code 404}. If not set,
+         * the consumer is reachable through all listeners.
+         */
+        public void setListener(String listener) {
+            this.listener = listener;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        /**
+         * The maximum number of requests (or HTTP/2 streams) processed concurrently under the context path of the
+         * consumer; further requests are queued. The limit is applied before the requests enter the servlet
+         * deployment, so all consumers sharing the context path must configure the same limit. {@code 0} or less means
+         * unlimited.
+         */
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public int getMaxQueuedRequests() {
+            return maxQueuedRequests;
+        }
+
+        /**
+         * The maximum number of requests waiting for one of the {@link #setMaxConcurrentRequests(int)} slots; requests
+         * exceeding it are answered with {@code 503}. {@code -1} means unbounded.
+         */
+        public void setMaxQueuedRequests(int maxQueuedRequests) {
+            this.maxQueuedRequests = maxQueuedRequests;
+        }
+
+        public boolean isStreamRequestBody() {
+            return streamRequestBody;
+        }
+
+        /**
+         * If {@code true}, the body of {@code POST}, {@code PUT} and {@code PATCH} requests is passed to the route as an
+         * {@link InputStream} reading from the request channel rather than as a {@code byte[]} holding the whole
+         * payload. Reading from the stream blocks until the client sends more data. Applies only if no custom
+         * {@link UndertowHttpBinding} is set.
+         */
+        public void setStreamRequestBody(boolean streamRequestBody) {
+            this.streamRequestBody = streamRequestBody;
+        }
+
         @Override
         public Consumer createConsumer(Processor processor) throws Exception {
+            if (streamRequestBody) {
+                // The endpoint is fully configured here, so the binding is selected once for all consumers
+                UndertowHttpBinding binding = getUndertowHttpBinding();
+                if (binding.getClass() == DefaultUndertowHttpBinding.class) {
+                    StreamingUndertowHttpBinding streaming = new StreamingUndertowHttpBinding();
+                    streaming.setHeaderFilterStrategy(getHeaderFilterStrategy());
+                    streaming.setTransferException(getTransferException());
+                    streaming.setMuteExceptions(getMuteExceptions());
+                    setUndertowHttpBinding(streaming);
+                }
+            }
             return new WildFlyUndertowUndertowConsumer(this, processor);
         }
     }
 
+    /**
+     * A {@link DefaultUndertowHttpBinding} that does not read the request body eagerly.
+     */
+    static class StreamingUndertowHttpBinding extends DefaultUndertowHttpBinding {
+
+        @Override
+        public Message toCamelMessage(HttpServerExchange httpExchange, Exchange exchange) throws Exception {
+            final HttpString method = httpExchange.getRequestMethod();
+            if ((Methods.POST.equals(method) || Methods.PUT.equals(method) || Methods.PATCH.equals(method))
+                    && httpExchange.getAttachment(FormDataParser.FORM_DATA) == null) {
+                final Message result = new DefaultMessage(exchange.getContext());
+                populateCamelHeaders(httpExchange, result.getHeaders(), exchange);
+                if (!httpExchange.isBlocking()) {
+                    httpExchange.startBlocking();
+                }
+                result.setBody(httpExchange.getInputStream());
+                return result;
+            }
+            return super.toCamelMessage(httpExchange, exchange);
+        }
+    }
+
     class WildFlyUndertowUndertowConsumer extends UndertowConsumer {
 
+        /** The bind address of the {@link WildFlyUndertowEndpoint#getListener()} or {@code null} if any listener is accepted */
+        private volatile InetSocketAddress listenerAddress;
+
         WildFlyUndertowUndertowConsumer(UndertowEndpoint endpoint, Processor processor) throws Exception {
             super(endpoint, processor);
             URI uri = new URI(endpoint.getEndpointUri());
@@ -81,8 +220,184 @@ public class WildFlyUndertowComponent extends UndertowComponent {
             }
         }
 
+        @Override
+        public WildFlyUndertowEndpoint getEndpoint() {
+            return (WildFlyUndertowEndpoint) super.getEndpoint();
+        }
+
+        @Override
+        public void handleRequest(HttpServerExchange httpExchange) throws Exception {
+            // Reading the request body is blocking
+            if (httpExchange.isInIoThread()) {
+                httpExchange.dispatch(this);
+                return;
+            }
+
+            final InetSocketAddress listener = listenerAddress;
+            if (listener != null && !isBoundTo(httpExchange, listener)) {
+                ResponseCodeHandler.HANDLE_404.handleRequest(httpExchange);
+                return;
+            }
+
+            if (Methods.OPTIONS.equals(httpExchange.getRequestMethod())) {
+                super.handleRequest(httpExchange);
+                return;
+            }
+
+            final AsyncContext asyncContext = getEndpoint().isAsyncDispatch() ? startAsync(httpExchange) : null;
+            final Exchange camelExchange = getEndpoint().createExchange(httpExchange);
+            createUoW(camelExchange);
+            if (asyncContext == null) {
+                try {
+                    getProcessor().process(camelExchange);
+                } catch (Exception ex) {
+                    getExceptionHandler().handleException(ex);
+                } finally {
+                    doneUoW(camelExchange);
+                }
+                sendResponse(httpExchange, camelExchange);
+                return;
+            }
+
+            getAsyncProcessor().process(camelExchange, doneSync -> {
+                try {
+                    doneUoW(camelExchange);
+                    sendResponse(httpExchange, camelExchange);
+                } catch (Exception ex) {
+                    getExceptionHandler().handleException("Cannot send the response", camelExchange, ex);
+                } finally {
+                    asyncContext.complete();
+                }
+            });
+        }
+
+        /**
+         * Listeners may share a port if they are bound to distinct interfaces, so the address has to match too, unless
+         * the listener is bound to all interfaces.
+         */
+        private boolean isBoundTo(HttpServerExchange httpExchange, InetSocketAddress listener) {
+            InetSocketAddress localAddress = httpExchange.getConnection().getLocalAddress(InetSocketAddress.class);
+            if (localAddress == null || localAddress.getPort() != listener.getPort()) {
+                return false;
+            }
+            return listener.getAddress() == null || listener.getAddress().isAnyLocalAddress()
+                    || listener.getAddress().equals(localAddress.getAddress());
+        }
+
+        private AsyncContext startAsync(HttpServerExchange httpExchange) {
+            ServletRequestContext servletRequestContext = httpExchange.getAttachment(ServletRequestContext.ATTACHMENT_KEY);
+            if (servletRequestContext != null) {
+                ServletRequest servletRequest = servletRequestContext.getServletRequest();
+                if (servletRequest.isAsyncSupported()) {
+                    return servletRequest.startAsync();
+                }
+            }
+            LOGGER.debug("Asynchronous dispatch not supported for {}", httpExchange.getRequestURI());
+            return null;
+        }
+
+        void sendResponse(HttpServerExchange httpExchange, Exchange camelExchange) throws Exception {
+            Message message = camelExchange.hasOut() ? camelExchange.getOut() : camelExchange.getIn();
+            Object body = getEndpoint().getUndertowHttpBinding().toHttpResponse(httpExchange, message);
+            if (body instanceof WrappedFile && ((WrappedFile<?>) body).getFile() instanceof File) {
+                body = ((WrappedFile<?>) body).getFile();
+            }
+            final IoCallback completion = completion(httpExchange);
+            if (body == null) {
+                httpExchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/plain");
+                httpExchange.getResponseSender().send("No response available", completion);
+            } else if (body instanceof File || body instanceof Path) {
+                sendFile(httpExchange, body instanceof File ? ((File) body).toPath() : (Path) body, completion);
+            } else if (body instanceof InputStream) {
+                sendStream(httpExchange, (InputStream) body);
+            } else {
+                ByteBuffer bodyAsByteBuffer = camelExchange.getContext().getTypeConverter().mandatoryConvertTo(ByteBuffer.class, body);
+                httpExchange.getResponseSender().send(bodyAsByteBuffer, completion);
+            }
+        }
+
+        /**
+         * Inside the servlet chain, the response is completed by the servlet container or by
+         * {@link AsyncContext#complete()}, so the sender must not end the exchange there.
+         */
+        private IoCallback completion(HttpServerExchange httpExchange) {
+            if (httpExchange.getAttachment(ServletRequestContext.ATTACHMENT_KEY) == null) {
+                return IoCallback.END_EXCHANGE;
+            }
+            return new IoCallback() {
+                @Override
+                public void onComplete(HttpServerExchange exchange, Sender sender) {
+                }
+
+                @Override
+                public void onException(HttpServerExchange exchange, Sender sender, IOException exception) {
+                    LOGGER.debug("Cannot send the response of " + exchange.getRequestURI(), exception);
+                }
+            };
+        }
+
+        /**
+         * Sends the given file through {@link Sender#transferFrom(FileChannel, IoCallback)}. Whether the content
+         * bypasses heap buffers depends on the response channel: the non-blocking sender used outside the servlet chain
+         * can use {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, while the blocking
+         * sender of a servlet response copies the file through the servlet output stream.
+         */
+        private void sendFile(HttpServerExchange httpExchange, Path file, IoCallback completion) throws IOException {
+            final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            if (!httpExchange.getResponseHeaders().contains(Headers.CONTENT_LENGTH)) {
+                httpExchange.setResponseContentLength(channel.size());
+            }
+            httpExchange.getResponseSender().transferFrom(channel, new IoCallback() {
+                @Override
+                public void onComplete(HttpServerExchange exchange, Sender sender) {
+                    close(channel, file);
+                    completion.onComplete(exchange, sender);
+                }
+
+                @Override
+                public void onException(HttpServerExchange exchange, Sender sender, IOException exception) {
+                    close(channel, file);
+                    completion.onException(exchange, sender, exception);
+                }
+            });
+        }
+
+        private void close(FileChannel channel, Path file) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                LOGGER.debug("Cannot close " + file, ex);
+            }
+        }
+
+        /**
+         * Copies the given stream to the response through a fixed size heap buffer, blocking the calling thread until
+         * the stream is exhausted. The body is not buffered as a whole; the response is chunked unless the route set
+         * the {@code Content-Length} header.
+         */
+        private void sendStream(HttpServerExchange httpExchange, InputStream in) throws IOException {
+            if (!httpExchange.isBlocking()) {
+                httpExchange.startBlocking();
+            }
+            try (InputStream input = in; OutputStream out = httpExchange.getOutputStream()) {
+                final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                int len;
+                while ((len = input.read(buffer)) >= 0) {
+                    out.write(buffer, 0, len);
+                }
+            }
+        }
+
         @Override
         protected void doStart() throws Exception {
+            WildFlyUndertowEndpoint endpoint = getEndpoint();
+            if (endpoint.getListener() != null) {
+                UndertowHost host = createUndertowHost(null);
+                IllegalStateAssertion.assertTrue(host instanceof CamelUndertowHostService.WildFlyUndertowHost,
+                        "Cannot resolve Undertow listeners through " + host);
+                listenerAddress = ((CamelUndertowHostService.WildFlyUndertowHost) host).getListenerAddress(endpoint.getListener());
+                LOGGER.debug("Serving {} only through listener {} on {}", endpoint.getHttpURI(), endpoint.getListener(), listenerAddress);
+            }
             super.doStart();
             URI httpUri = getEndpoint().getHttpURI();
             String contextPath = httpUri.getPath();
@@ -95,6 +410,7 @@ public class WildFlyUndertowComponent extends UndertowComponent {
             String contextPath = httpUri.getPath();
             runtimeState.removeHttpContext(contextPath);
             super.doStop();
+            listenerAddress = null;
         }
     }
 }
@@ -0,0 +1,153 @@
+package org.wildfly.extension.camel.undertow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wildfly.extension.camel.parser.SubsystemState.RuntimeState;
+import org.wildfly.extension.camel.undertow.CamelUndertowHostService.DelegatingRoutingHandler;
+
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Methods;
+
+public class RoutingTrieTest {
+
+    static class NamedHandler implements HttpHandler {
+        private final String name;
+
+        NamedHandler(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void handleRequest(HttpServerExchange exchange) throws Exception {
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static RoutingTrie trie(String... templates) {
+        final RoutingTrie.Builder builder = new RoutingTrie.Builder();
+        for (String template : templates) {
+            builder.add(Methods.GET, template, new NamedHandler(template));
+        }
+        return builder.build();
+    }
+
+    static void assertMatch(RoutingTrie trie, String path, String expectedTemplate, String... expectedParams) {
+        final RoutingTrie.Match match = trie.match(Methods.GET, path);
+        if (expectedTemplate == null) {
+            Assert.assertNull(path, match);
+        } else {
+            Assert.assertNotNull(path, match);
+            Assert.assertEquals(path, expectedTemplate, match.getHandler().toString());
+            Assert.assertEquals(path, expectedTemplate, match.getTemplate());
+            final Map<String, String> params = new LinkedHashMap<>();
+            for (int i = 0; i < expectedParams.length; i += 2) {
+                params.put(expectedParams[i], expectedParams[i + 1]);
+            }
+            Assert.assertEquals(path, params, match.getParameters());
+        }
+    }
+
+    @Test
+    public void testExact() {
+        final RoutingTrie trie = trie("/", "/foo", "/foo/bar", "/foo/");
+        assertMatch(trie, "/", "/");
+        assertMatch(trie, "/foo", "/foo");
+        assertMatch(trie, "/foo/", "/foo/");
+        assertMatch(trie, "/foo/bar", "/foo/bar");
+        assertMatch(trie, "/foo/baz", null);
+        assertMatch(trie, "/foo/bar/baz", null);
+        assertMatch(trie, "/fo", null);
+    }
+
+    @Test
+    public void testParams() {
+        final RoutingTrie trie = trie("/users/{id}", "/users/{id}/orders/{orderId}", "/users/me", "/users/{name}/profile");
+        assertMatch(trie, "/users/me", "/users/me");
+        assertMatch(trie, "/users/42", "/users/{id}", "id", "42");
+        assertMatch(trie, "/users/42/orders/7", "/users/{id}/orders/{orderId}", "id", "42", "orderId", "7");
+        assertMatch(trie, "/users/joe/profile", "/users/{name}/profile", "name", "joe");
+        assertMatch(trie, "/users/", null);
+        assertMatch(trie, "/users/42/orders", null);
+    }
+
+    @Test
+    public void testPrefixes() {
+        final RoutingTrie trie = trie("/*", "/foo*", "/foo/bar/*", "/foo/{id}");
+        assertMatch(trie, "/", "/*");
+        assertMatch(trie, "/baz", "/*");
+        assertMatch(trie, "/foo", "/foo*");
+        assertMatch(trie, "/foobar", "/foo*");
+        assertMatch(trie, "/foo/1", "/foo/{id}", "id", "1");
+        assertMatch(trie, "/foo/1/2", "/foo*");
+        assertMatch(trie, "/foo/bar", "/foo/{id}", "id", "bar");
+        assertMatch(trie, "/foo/bar/", "/foo/bar/*");
+        assertMatch(trie, "/foo/bar/baz", "/foo/bar/*");
+    }
+
+    @Test
+    public void testMethods() {
+        final RoutingTrie trie = new RoutingTrie.Builder().add(Methods.POST, "/foo", new NamedHandler("/foo")).build();
+        Assert.assertNull(trie.match(Methods.GET, "/foo"));
+        Assert.assertNotNull(trie.match(Methods.POST, "/foo"));
+        Assert.assertEquals(Collections.emptyMap(), trie.match(Methods.POST, "/foo").getParameters());
+    }
+
+    @Test
+    public void testSupported() {
+        Assert.assertTrue(RoutingTrie.isSupported("/foo/{id}/bar*"));
+        Assert.assertTrue(RoutingTrie.isSupported("*"));
+        Assert.assertFalse(RoutingTrie.isSupported("/foo/{id}.json"));
+        Assert.assertFalse(RoutingTrie.isSupported("/foo/{id}*"));
+        Assert.assertFalse(RoutingTrie.isSupported("/foo/*/bar"));
+    }
+
+    @Test
+    public void testFallbackPrecedence() throws Exception {
+        final List<String> called = new ArrayList<>();
+        final DelegatingRoutingHandler handler = new DelegatingRoutingHandler(null, "/ctx", new RuntimeState());
+        handler.add("GET", "/foo/{id}", recording("/foo/{id}", called));
+        handler.add("GET", "/foo/bar", recording("/foo/bar", called));
+        Assert.assertEquals("/foo/bar", route(handler, "/foo/bar", called));
+        Assert.assertEquals("/foo/{id}", route(handler, "/foo/1", called));
+
+        /* An unsupported template routes all paths through RoutingHandler, so it is not shadowed by the trie */
+        handler.add("GET", "/foo/{id}.json", recording("/foo/{id}.json", called));
+        Assert.assertEquals("/foo/{id}.json", route(handler, "/foo/1.json", called));
+        Assert.assertEquals("/foo/bar", route(handler, "/foo/bar", called));
+        Assert.assertEquals("/foo/{id}", route(handler, "/foo/1", called));
+
+        handler.remove("GET", "/foo/{id}.json");
+        Assert.assertEquals("/foo/{id}", route(handler, "/foo/1.json", called));
+        Assert.assertEquals("/foo/bar", route(handler, "/foo/bar", called));
+    }
+
+    static HttpHandler recording(String name, List<String> called) {
+        return new NamedHandler(name) {
+            @Override
+            public void handleRequest(HttpServerExchange exchange) throws Exception {
+                called.add(name);
+            }
+        };
+    }
+
+    static String route(DelegatingRoutingHandler handler, String path, List<String> called) throws Exception {
+        called.clear();
+        final HttpServerExchange exchange = new HttpServerExchange(null);
+        exchange.setRequestMethod(Methods.GET);
+        exchange.setRelativePath(path);
+        handler.handleRequest(exchange);
+        Assert.assertEquals(path, 1, called.size());
+        return called.get(0);
+    }
+}